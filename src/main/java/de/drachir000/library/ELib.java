@@ -1,12 +1,17 @@
 package de.drachir000.library;
 
+import de.drachir000.library.configuration.EnchantmentConfigurationLoader;
 import de.drachir000.library.utils.EnchantmentManager;
 import de.drachir000.library.utils.ItemManager;
 import de.drachir000.library.utils.LoreManager;
+import de.drachir000.library.utils.LoreUpdateScheduler;
 import org.bstats.bukkit.Metrics;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 /**
@@ -24,7 +29,10 @@ public final class ELib extends JavaPlugin {
 
     private EnchantmentManager enchantmentManager;
     private LoreManager loreManager;
+    private LoreUpdateScheduler loreUpdateScheduler;
     private ItemManager itemManager;
+    private EnchantmentConfigurationLoader enchantmentConfigurationLoader;
+    private ExecutorService saveExecutor;
 
     @Override
     public void onEnable() {
@@ -32,19 +40,39 @@ public final class ELib extends JavaPlugin {
 
         instance = this;
 
+        this.saveExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ELib save thread");
+            thread.setDaemon(true);
+            return thread;
+        });
+
         this.enchantmentManager = new EnchantmentManager(this);
         this.loreManager = new LoreManager(this);
+        this.loreUpdateScheduler = new LoreUpdateScheduler(this);
         this.itemManager = new ItemManager(this, enchantmentManager);
 
         try {
             enchantmentManager.registerVanillaEnchantments();
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             getLogger().log(Level.SEVERE, "Failed to register vanilla enchantments!!!");
             e.printStackTrace();
             getPluginLoader().disablePlugin(this);
             return;
         }
-        // TODO: register enchantments from enchantments-configuration file
+
+        this.enchantmentConfigurationLoader = new EnchantmentConfigurationLoader(this, enchantmentManager);
+
+        try {
+            enchantmentConfigurationLoader.load();
+            enchantmentConfigurationLoader.startWatching();
+            // the first tick runs after all plugins are enabled and have registered their enchantments
+            getServer().getScheduler().runTask(this, enchantmentConfigurationLoader::applyPending);
+        } catch (IOException e) {
+            getLogger().log(Level.SEVERE, "Failed to load the enchantments configuration!", e);
+        }
+
+        getServer().getPluginManager().registerEvents(loreUpdateScheduler, this);
+        loreUpdateScheduler.start();
 
         loadMetrics();
 
@@ -78,6 +106,16 @@ public final class ELib extends JavaPlugin {
         return loreManager;
     }
 
+    /**
+     * get the lore update scheduler, that coalesces lore updates, when deferred lore updates are enabled.
+     *
+     * @return the LoreUpdateScheduler
+     * @since 0.0.8
+     */
+    public LoreUpdateScheduler getLoreUpdateScheduler() {
+        return loreUpdateScheduler;
+    }
+
     /**
      * get the Item Manager. Used for a buch of item related actions, except the lore
      *
@@ -88,6 +126,26 @@ public final class ELib extends JavaPlugin {
         return itemManager;
     }
 
+    /**
+     * get the enchantments configuration loader, that keeps the enchantments from the "enchantments" folder up to date.
+     *
+     * @return the EnchantmentConfigurationLoader
+     * @since 0.0.8
+     */
+    public EnchantmentConfigurationLoader getEnchantmentConfigurationLoader() {
+        return enchantmentConfigurationLoader;
+    }
+
+    /**
+     * get the executor, that writes configs in the background. It is shut down, after all pending writes are done, when ELib gets disabled.
+     *
+     * @return the save executor
+     * @since 0.0.8
+     */
+    public ExecutorService getSaveExecutor() {
+        return saveExecutor;
+    }
+
     private void loadMetrics() {
         this.metrics = new Metrics(this, bStatsID);
     }
@@ -96,6 +154,26 @@ public final class ELib extends JavaPlugin {
     public void onDisable() {
         // Plugin shutdown logic
 
+        if (enchantmentConfigurationLoader != null)
+            enchantmentConfigurationLoader.stopWatching();
+
+        if (loreUpdateScheduler != null)
+            loreUpdateScheduler.stop();
+
+        if (enchantmentManager != null)
+            enchantmentManager.flush();
+
+        if (saveExecutor != null) {
+            saveExecutor.shutdown();
+            try {
+                if (!saveExecutor.awaitTermination(10, TimeUnit.SECONDS))
+                    getLogger().log(Level.WARNING, "Couldn't finish all pending writes!");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            saveExecutor = null;
+        }
+
         instance = null;
 
     }
@@ -0,0 +1,30 @@
+package de.drachir000.library.configuration;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+/**
+ * Binds a JSON configuration onto an immutable, validated Java object
+ *
+ * @param <T> the type of the bound object
+ * @author Drachir000
+ * @see TypedJsonConfig
+ * @since 0.0.8
+ */
+@FunctionalInterface
+public interface ConfigBinder<T> {
+
+    /**
+     * Reads the whole configuration from the reader and binds it.
+     * Large sub-trees, that are not always needed, can be read as {@link LazyNode} to bind them on first access.
+     *
+     * @param reader the reader positioned at the root value of the configuration
+     * @return the bound object
+     * @throws IOException           if the configuration is malformed or couldn't be read
+     * @throws IllegalStateException if the configuration has an unexpected structure
+     * @since 0.0.8
+     */
+    T bind(JsonReader reader) throws IOException;
+
+}
@@ -0,0 +1,377 @@
+package de.drachir000.library.configuration;
+
+import de.drachir000.library.ELib;
+import de.drachir000.library.enchantments.Enchantment;
+import de.drachir000.library.utils.EnchantmentManager;
+import org.bukkit.NamespacedKey;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Loads enchantments from the json files in the "enchantments" folder of the plugin's data folder and keeps them up to date while the server is running.
+ * <br>
+ * Every file uses the same format as vanilla-enchantments.json, keys without a namespace belong to the minecraft namespace.
+ * Entries for registered enchantments (e.g. vanilla enchantments) override their properties. Entries in ELib's namespace (e.g. "elib:frost") create new enchantments,
+ * if no enchantment with this key is registered. Entries for unregistered keys of other namespaces belong to other plugins, so they wait until their plugin registers them.
+ * They are applied on the first tick after all plugins are enabled and with every later change, plugins registering enchantments after that can call {@link #applyPending()}.
+ * If two files contain the same key, the file whose name comes last alphabetically wins.
+ * <br>
+ * Removing an entry unregisters the enchantment, if it was created by this loader, and restores the original properties of an overridden enchantment otherwise.
+ * <br>
+ * While watching, only files whose content changed are parsed again (off the main thread). The result is compared with the currently applied configuration
+ * and only added, removed and changed enchantments are applied, all of them in a single task on the main thread.
+ *
+ * @author Drachir000
+ * @since 0.0.8
+ */
+public class EnchantmentConfigurationLoader {
+
+    private static final long DEBOUNCE_MILLIS = 250;
+
+    private final ELib eLib;
+    private final EnchantmentManager enchantmentManager;
+    private final Path directory;
+    private final String namespace;
+
+    // (re)loaded by the main thread and the watcher thread, guarded by fileConfigs
+    private final Map<Path, TypedJsonConfig<Map<NamespacedKey, EnchantmentDescriptor>>> fileConfigs;
+    private Map<NamespacedKey, EnchantmentDescriptor> loadedDescriptors;
+
+    // only accessed on the main thread
+    private final Map<NamespacedKey, EnchantmentDescriptor> appliedDescriptors;
+    private final Map<NamespacedKey, Enchantment> appliedEnchantments;
+    private final Map<NamespacedKey, EnchantmentDescriptor> originalDescriptors;
+    private final Set<NamespacedKey> createdEnchantments;
+
+    private WatchService watchService;
+    private Thread watchThread;
+
+    /**
+     * @param eLib               the instance of ELib
+     * @param enchantmentManager the enchantment manager to apply the configuration to
+     * @since 0.0.8
+     */
+    public EnchantmentConfigurationLoader(ELib eLib, EnchantmentManager enchantmentManager) {
+        this.eLib = eLib;
+        this.enchantmentManager = enchantmentManager;
+        this.directory = eLib.getDataFolder().toPath().resolve("enchantments");
+        this.namespace = eLib.getName().toLowerCase(Locale.ROOT);
+        this.fileConfigs = new TreeMap<>();
+        this.loadedDescriptors = Collections.emptyMap();
+        this.appliedDescriptors = new HashMap<>();
+        this.appliedEnchantments = new HashMap<>();
+        this.originalDescriptors = new HashMap<>();
+        this.createdEnchantments = new HashSet<>();
+    }
+
+    /**
+     * Loads all configuration files and applies them. Has to be called on the main thread.
+     *
+     * @throws IOException if the enchantments folder couldn't be created or read
+     * @since 0.0.8
+     */
+    public void load() throws IOException {
+
+        Files.createDirectories(directory);
+
+        Set<Path> files = getKnownFiles();
+
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory, "*.json")) {
+            for (Path file : directoryStream)
+                files.add(file);
+        }
+
+        if (reload(files))
+            apply(getLoadedDescriptors());
+
+    }
+
+    /**
+     * Applies the entries, that wait for their plugin to register the enchantment. Has to be called on the main thread.
+     * ELib calls this on the first tick after all plugins are enabled.
+     *
+     * @since 0.0.8
+     */
+    public void applyPending() {
+        apply(getLoadedDescriptors());
+    }
+
+    /**
+     * Starts watching the enchantments folder for changes. Changes are applied automatically.
+     *
+     * @throws IOException if the folder couldn't be watched
+     * @since 0.0.8
+     */
+    public void startWatching() throws IOException {
+
+        if (watchThread != null)
+            return;
+
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+
+        watchThread = new Thread(this::watch, "ELib enchantments configuration watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+
+    }
+
+    /**
+     * Stops watching the enchantments folder
+     *
+     * @since 0.0.8
+     */
+    public void stopWatching() {
+
+        if (watchThread == null)
+            return;
+
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+        }
+
+        watchThread.interrupt();
+        watchThread = null;
+        watchService = null;
+
+    }
+
+    private void watch() {
+
+        WatchService watchService = this.watchService;
+
+        try {
+
+            while (true) {
+
+                WatchKey watchKey = watchService.take();
+                Set<Path> changedFiles = new HashSet<>();
+
+                // collect all events of a burst (editors often write a file more than once)
+                do {
+
+                    for (WatchEvent<?> event : watchKey.pollEvents()) {
+
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            changedFiles.addAll(getKnownFiles());
+                            try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory, "*.json")) {
+                                for (Path file : directoryStream)
+                                    changedFiles.add(file);
+                            } catch (IOException e) {
+                                eLib.getLogger().log(Level.WARNING, "Couldn't list the enchantments folder!", e);
+                            }
+                            continue;
+                        }
+
+                        Path file = directory.resolve((Path) event.context());
+                        if (file.getFileName().toString().endsWith(".json"))
+                            changedFiles.add(file);
+
+                    }
+
+                    if (!watchKey.reset()) {
+                        eLib.getLogger().log(Level.WARNING, "The enchantments folder isn't accessible anymore! Stopped watching it");
+                        return;
+                    }
+
+                    watchKey = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+
+                } while (watchKey != null);
+
+                if (!eLib.isEnabled())
+                    return;
+
+                // a single broken change must not stop the watcher
+                try {
+
+                    if (changedFiles.isEmpty() || !reload(changedFiles))
+                        continue;
+
+                    // applies the latest loaded state, so a task, that runs after a newer reload, can't apply an outdated one
+                    eLib.getServer().getScheduler().runTask(eLib, () -> apply(getLoadedDescriptors()));
+
+                } catch (RuntimeException e) {
+                    eLib.getLogger().log(Level.WARNING, "Couldn't reload the enchantments folder!", e);
+                }
+
+            }
+
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // stopped watching
+        }
+
+    }
+
+    private Set<Path> getKnownFiles() {
+        synchronized (fileConfigs) {
+            return new HashSet<>(fileConfigs.keySet());
+        }
+    }
+
+    private Map<NamespacedKey, EnchantmentDescriptor> getLoadedDescriptors() {
+        synchronized (fileConfigs) {
+            return loadedDescriptors;
+        }
+    }
+
+    // reloads the given files and merges all files again, returns false if nothing changed
+    private boolean reload(Set<Path> files) {
+
+        synchronized (fileConfigs) {
+
+            boolean changed = false;
+
+            for (Path file : files) {
+
+                if (Files.notExists(file)) {
+                    changed |= fileConfigs.remove(file) != null;
+                    continue;
+                }
+
+                String fileName = "enchantments/" + file.getFileName();
+                TypedJsonConfig<Map<NamespacedKey, EnchantmentDescriptor>> fileConfig = fileConfigs.computeIfAbsent(file,
+                        path -> new TypedJsonConfig<>(path, reader -> new EnchantmentDescriptorReader(eLib.getLogger(), fileName).read(reader)));
+
+                try {
+                    changed |= fileConfig.reload();
+                } catch (IOException | RuntimeException e) {
+                    // keep the last valid state of the file, it may be saved again in a moment
+                    eLib.getLogger().log(Level.WARNING, "Couldn't load " + fileName + "! Keeping its previous state: " + e.getMessage());
+                }
+
+            }
+
+            if (!changed)
+                return false;
+
+            Map<NamespacedKey, EnchantmentDescriptor> descriptors = new LinkedHashMap<>();
+
+            for (TypedJsonConfig<Map<NamespacedKey, EnchantmentDescriptor>> fileConfig : fileConfigs.values()) {
+                if (fileConfig.get() != null)
+                    descriptors.putAll(fileConfig.get());
+            }
+
+            loadedDescriptors = Collections.unmodifiableMap(descriptors);
+
+            return true;
+
+        }
+
+    }
+
+    private void apply(Map<NamespacedKey, EnchantmentDescriptor> descriptors) {
+
+        List<Enchantment> toRegister = new ArrayList<>();
+        List<Enchantment> toUnregister = new ArrayList<>();
+        int added = 0, changed = 0, removed = 0, pending = 0;
+
+        for (Map.Entry<NamespacedKey, EnchantmentDescriptor> entry : descriptors.entrySet()) {
+
+            NamespacedKey namespacedKey = entry.getKey();
+            EnchantmentDescriptor descriptor = entry.getValue();
+            Enchantment enchantment = enchantmentManager.getByNamespacedKey(namespacedKey);
+            Enchantment appliedEnchantment = appliedEnchantments.get(namespacedKey);
+
+            if (enchantment != null && enchantment == appliedEnchantment && descriptor.equals(appliedDescriptors.get(namespacedKey)))
+                continue;
+
+            if (enchantment == null && !namespacedKey.getNamespace().equals(namespace)) {
+                // belongs to a plugin, that didn't register it (yet), creating it would make the plugin's registration fail
+                forget(namespacedKey);
+                pending++;
+                continue;
+            }
+
+            if (appliedDescriptors.containsKey(namespacedKey))
+                changed++;
+            else
+                added++;
+
+            if (enchantment == null) {
+                enchantment = descriptor.createEnchantment();
+                toRegister.add(enchantment);
+                createdEnchantments.add(namespacedKey);
+                originalDescriptors.remove(namespacedKey);
+            } else {
+                if (enchantment != appliedEnchantment) {
+                    // first override of this instance, remember its properties to restore them when the entry gets removed
+                    createdEnchantments.remove(namespacedKey);
+                    originalDescriptors.put(namespacedKey, EnchantmentDescriptor.of(enchantment));
+                }
+                descriptor.applyTo(enchantment);
+            }
+
+            appliedDescriptors.put(namespacedKey, descriptor);
+            appliedEnchantments.put(namespacedKey, enchantment);
+
+        }
+
+        for (NamespacedKey namespacedKey : new ArrayList<>(appliedDescriptors.keySet())) {
+
+            if (descriptors.containsKey(namespacedKey))
+                continue;
+
+            removed++;
+
+            Enchantment appliedEnchantment = appliedEnchantments.get(namespacedKey);
+            EnchantmentDescriptor originalDescriptor = originalDescriptors.get(namespacedKey);
+            boolean created = createdEnchantments.contains(namespacedKey);
+
+            forget(namespacedKey);
+
+            // leave enchantments alone, that were replaced by someone else in the meantime
+            if (appliedEnchantment == null || enchantmentManager.getByNamespacedKey(namespacedKey) != appliedEnchantment)
+                continue;
+
+            if (created)
+                toUnregister.add(appliedEnchantment);
+            else if (originalDescriptor != null)
+                originalDescriptor.applyTo(appliedEnchantment);
+
+        }
+
+        if (!toUnregister.isEmpty())
+            enchantmentManager.unregisterAllFromServer(toUnregister, true);
+
+        if (!toRegister.isEmpty()) {
+            for (Map.Entry<Enchantment, Boolean> result : enchantmentManager.registerAllToServer(toRegister, true).entrySet()) {
+                if (!result.getValue())
+                    eLib.getLogger().log(Level.WARNING, "Couldn't register \"" + result.getKey().getKey() + "\" from the enchantments configuration to the server!");
+            }
+        }
+
+        if (added + changed + removed > 0)
+            eLib.getLogger().log(Level.INFO, "Applied enchantments configuration: " + added + " added, " + changed + " changed, " + removed + " removed"
+                    + (pending > 0 ? ", " + pending + " waiting for their plugin to register them" : ""));
+
+    }
+
+    private void forget(NamespacedKey namespacedKey) {
+        appliedDescriptors.remove(namespacedKey);
+        appliedEnchantments.remove(namespacedKey);
+        originalDescriptors.remove(namespacedKey);
+        createdEnchantments.remove(namespacedKey);
+    }
+
+}
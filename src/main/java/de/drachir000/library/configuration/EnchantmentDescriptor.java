@@ -0,0 +1,215 @@
+package de.drachir000.library.configuration;
+
+import de.drachir000.library.enchantments.Enchantment;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.EnchantmentTarget;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable, validated description of an enchantment, as loaded from an enchantments configuration file
+ *
+ * @author Drachir000
+ * @see EnchantmentDescriptorReader
+ * @since 0.0.8
+ */
+public final class EnchantmentDescriptor {
+
+    private final NamespacedKey namespacedKey;
+    private final String name, defaultPrefix, maxLevelPrefix;
+    private final short minLevel, maxLevel;
+    private final EnchantmentTarget enchantmentTarget;
+    private final boolean curse;
+    private final List<NamespacedKey> conflicts;
+    private final Set<Material> enchantable;
+
+    /**
+     * @param namespacedKey     The key of the enchantment
+     * @param name              The name of the enchantment
+     * @param defaultPrefix     The prefix, written before the name in the item lore, when the enchantment doesn't is at max level
+     * @param maxLevelPrefix    The prefix, written before the name in the item lore, when the enchantment is at max level
+     * @param minLevel          The minimal level of the enchantment. Will be clamped between 1 and the maximum level
+     * @param maxLevel          The maximal level of the enchantment. Can't be lower than 1
+     * @param enchantmentTarget The targeted group of item types
+     * @param curse             Whether this enchantment is a curse
+     * @param conflicts         The keys of all enchantments this enchantment conflicts with
+     * @param enchantable       Every material type, this enchantment should be able to get applied on
+     * @since 0.0.8
+     */
+    public EnchantmentDescriptor(NamespacedKey namespacedKey, String name, String defaultPrefix, String maxLevelPrefix, short minLevel, short maxLevel, EnchantmentTarget enchantmentTarget, boolean curse, Collection<NamespacedKey> conflicts, Collection<Material> enchantable) {
+        this.namespacedKey = Objects.requireNonNull(namespacedKey, "namespacedKey");
+        this.name = Objects.requireNonNull(name, "name");
+        this.defaultPrefix = Objects.requireNonNull(defaultPrefix, "defaultPrefix");
+        this.maxLevelPrefix = Objects.requireNonNull(maxLevelPrefix, "maxLevelPrefix");
+        if (maxLevel < 1)
+            maxLevel = 1;
+        if (minLevel < 1)
+            minLevel = 1;
+        if (minLevel > maxLevel)
+            minLevel = maxLevel;
+        this.minLevel = minLevel;
+        this.maxLevel = maxLevel;
+        this.enchantmentTarget = enchantmentTarget == null ? EnchantmentTarget.ALL : enchantmentTarget;
+        this.curse = curse;
+        this.conflicts = conflicts == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(conflicts));
+        EnumSet<Material> enchantableSet = EnumSet.noneOf(Material.class);
+        if (enchantable != null)
+            enchantableSet.addAll(enchantable);
+        this.enchantable = Collections.unmodifiableSet(enchantableSet);
+    }
+
+    /**
+     * Creates a descriptor with the current properties of an enchantment, e.g. to restore them later with {@link #applyTo(Enchantment)}.
+     * A missing name or prefix is described as an empty string.
+     *
+     * @param enchantment the enchantment to describe
+     * @return a descriptor of the enchantment
+     * @since 0.0.8
+     */
+    public static EnchantmentDescriptor of(Enchantment enchantment) {
+        return new EnchantmentDescriptor(enchantment.getNamespacedKey(), nonNull(enchantment.getName()), nonNull(enchantment.getDefaultPrefix()), nonNull(enchantment.getMaxLevelPrefix()),
+                enchantment.getMinLevel(), (short) enchantment.getMaxLevel(), enchantment.getEnchantmentTarget(), enchantment.isCurse(), enchantment.getConflicts(), enchantment.getEnchantableMaterials());
+    }
+
+    private static String nonNull(String string) {
+        return string == null ? "" : string;
+    }
+
+    /**
+     * Creates a new enchantment with the properties of this descriptor
+     *
+     * @return a new, unregistered enchantment
+     * @since 0.0.8
+     */
+    public Enchantment createEnchantment() {
+        return new Enchantment(name, defaultPrefix, maxLevelPrefix, namespacedKey, minLevel, maxLevel, enchantmentTarget, curse, new ArrayList<>(conflicts), new ArrayList<>(enchantable)) {
+        };
+    }
+
+    /**
+     * Applies the properties of this descriptor to an existing enchantment. The key of the enchantment won't be changed.
+     *
+     * @param enchantment the enchantment to update
+     * @since 0.0.8
+     */
+    public void applyTo(Enchantment enchantment) {
+        enchantment.setName(name);
+        enchantment.setDefaultPrefix(defaultPrefix);
+        enchantment.setMaxLevelPrefix(maxLevelPrefix);
+        // the level setters clamp against each other, so widen the range first
+        enchantment.setMinLevel((short) 1);
+        enchantment.setMaxLevel(maxLevel);
+        enchantment.setMinLevel(minLevel);
+        enchantment.setEnchantmentTarget(enchantmentTarget);
+        enchantment.setCurse(curse);
+        enchantment.setConflicts(new ArrayList<>(conflicts));
+        enchantment.setEnchantable(new ArrayList<>(enchantable));
+    }
+
+    /**
+     * @return The key of the enchantment
+     * @since 0.0.8
+     */
+    public NamespacedKey getNamespacedKey() {
+        return namespacedKey;
+    }
+
+    /**
+     * @return The name of the enchantment
+     * @since 0.0.8
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The prefix, written before the name in the item lore, when the enchantment doesn't is at max level
+     * @since 0.0.8
+     */
+    public String getDefaultPrefix() {
+        return defaultPrefix;
+    }
+
+    /**
+     * @return The prefix, written before the name in the item lore, when the enchantment is at max level
+     * @since 0.0.8
+     */
+    public String getMaxLevelPrefix() {
+        return maxLevelPrefix;
+    }
+
+    /**
+     * @return The minimal level of the enchantment
+     * @since 0.0.8
+     */
+    public short getMinLevel() {
+        return minLevel;
+    }
+
+    /**
+     * @return The maximal level of the enchantment
+     * @since 0.0.8
+     */
+    public short getMaxLevel() {
+        return maxLevel;
+    }
+
+    /**
+     * @return The targeted group of item types
+     * @since 0.0.8
+     */
+    public EnchantmentTarget getEnchantmentTarget() {
+        return enchantmentTarget;
+    }
+
+    /**
+     * @return Whether this enchantment is a curse
+     * @since 0.0.8
+     */
+    public boolean isCurse() {
+        return curse;
+    }
+
+    /**
+     * @return An unmodifiable list of the keys of all enchantments this enchantment conflicts with
+     * @since 0.0.8
+     */
+    public List<NamespacedKey> getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * @return An unmodifiable set of every material type, this enchantment should be able to get applied on
+     * @since 0.0.8
+     */
+    public Set<Material> getEnchantable() {
+        return enchantable;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof EnchantmentDescriptor))
+            return false;
+        EnchantmentDescriptor that = (EnchantmentDescriptor) o;
+        return minLevel == that.minLevel && maxLevel == that.maxLevel && curse == that.curse
+                && namespacedKey.equals(that.namespacedKey) && name.equals(that.name)
+                && defaultPrefix.equals(that.defaultPrefix) && maxLevelPrefix.equals(that.maxLevelPrefix)
+                && enchantmentTarget == that.enchantmentTarget && conflicts.equals(that.conflicts)
+                && enchantable.equals(that.enchantable);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(namespacedKey, name, defaultPrefix, maxLevelPrefix, minLevel, maxLevel, enchantmentTarget, curse, conflicts, enchantable);
+    }
+
+}
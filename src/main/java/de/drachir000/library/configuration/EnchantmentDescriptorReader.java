@@ -0,0 +1,324 @@
+package de.drachir000.library.configuration;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.EnchantmentTarget;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A streaming reader for enchantments configuration files (like vanilla-enchantments.json).
+ * Every entry is decoded straight into a typed, validated {@link EnchantmentDescriptor}, without building an intermediate tree.
+ * <br>
+ * Missing or invalid values fall back to their defaults. All problems of one file are reported in a single warning.
+ *
+ * @author Drachir000
+ * @since 0.0.8
+ */
+public class EnchantmentDescriptorReader {
+
+    private static final String DEFAULT_PREFIX = "§r§7", MAX_LEVEL_PREFIX = "§r§6"; // TODO default values
+
+    private final Logger logger;
+    private final String source;
+    private final List<String> problems;
+
+    /**
+     * @param logger The logger to report problems to
+     * @param source The name of the read file, used in the problem report
+     * @since 0.0.8
+     */
+    public EnchantmentDescriptorReader(Logger logger, String source) {
+        this.logger = logger;
+        this.source = source;
+        this.problems = new ArrayList<>();
+    }
+
+    /**
+     * Reads all enchantment entries of a configuration. Keys without a namespace are resolved in the minecraft namespace.
+     *
+     * @param reader The reader to read the configuration from. It won't be closed.
+     * @return An unmodifiable map of all valid entries by their key, in file order
+     * @throws IOException if the reader fails or the configuration is not a JSON object
+     * @since 0.0.8
+     */
+    public Map<NamespacedKey, EnchantmentDescriptor> read(Reader reader) throws IOException {
+        return read(new JsonReader(reader));
+    }
+
+    /**
+     * Reads all enchantment entries of a configuration. Keys without a namespace are resolved in the minecraft namespace.
+     * This can be used as {@link ConfigBinder} of a {@link TypedJsonConfig}.
+     *
+     * @param jsonReader The reader positioned at the root object of the configuration. It won't be closed.
+     * @return An unmodifiable map of all valid entries by their key, in file order
+     * @throws IOException if the reader fails or the configuration is not a JSON object
+     * @since 0.0.8
+     */
+    public Map<NamespacedKey, EnchantmentDescriptor> read(JsonReader jsonReader) throws IOException {
+
+        Map<NamespacedKey, EnchantmentDescriptor> descriptors = new LinkedHashMap<>();
+
+        problems.clear();
+
+        jsonReader.beginObject();
+
+        while (jsonReader.hasNext()) {
+
+            String key = jsonReader.nextName();
+            NamespacedKey namespacedKey = parseKey(key);
+
+            if (namespacedKey == null) {
+                problems.add("\"" + key + "\": invalid key");
+                jsonReader.skipValue();
+                continue;
+            }
+
+            if (jsonReader.peek() != JsonToken.BEGIN_OBJECT) {
+                problems.add("\"" + key + "\": invalid entry");
+                jsonReader.skipValue();
+                continue;
+            }
+
+            descriptors.put(namespacedKey, readEntry(jsonReader, key, namespacedKey));
+
+        }
+
+        jsonReader.endObject();
+
+        report(problems);
+
+        return Collections.unmodifiableMap(descriptors);
+
+    }
+
+    /**
+     * @return The problems found by the last read, in file order
+     * @since 0.0.8
+     */
+    public List<String> getProblems() {
+        return Collections.unmodifiableList(new ArrayList<>(problems));
+    }
+
+    /**
+     * Reports problems in a single warning, like a read does. Used to repeat the warning, when the result of an earlier read is reused (e.g. from an {@link EnchantmentSnapshot}).
+     *
+     * @param problems The problems to report. Nothing is reported if it is empty.
+     * @since 0.0.8
+     */
+    public void report(List<String> problems) {
+        if (!problems.isEmpty())
+            logger.log(Level.WARNING, problems.size() + " problem(s) in " + source + ", continuing with default values: " + String.join("; ", problems));
+    }
+
+    private EnchantmentDescriptor readEntry(JsonReader jsonReader, String key, NamespacedKey namespacedKey) throws IOException {
+
+        String name = null, defaultPrefix = DEFAULT_PREFIX, maxLevelPrefix = MAX_LEVEL_PREFIX;
+        short minLevel = 1, maxLevel = 1;
+        EnchantmentTarget enchantmentTarget = null;
+        Boolean curse = null;
+        List<NamespacedKey> conflicts = null;
+        Set<Material> enchantable = null;
+
+        jsonReader.beginObject();
+
+        while (jsonReader.hasNext()) {
+
+            String field = jsonReader.nextName();
+
+            switch (field) {
+                case "name":
+                    name = readString(jsonReader, key, field, name);
+                    break;
+                case "default-prefix":
+                    defaultPrefix = readString(jsonReader, key, field, defaultPrefix);
+                    break;
+                case "maxLevel-prefix":
+                    maxLevelPrefix = readString(jsonReader, key, field, maxLevelPrefix);
+                    break;
+                case "min-level":
+                    minLevel = readLevel(jsonReader, key, field, minLevel);
+                    break;
+                case "max-level":
+                    maxLevel = readLevel(jsonReader, key, field, maxLevel);
+                    break;
+                case "enchantment-target":
+                    enchantmentTarget = readEnchantmentTarget(jsonReader, key);
+                    break;
+                case "curse":
+                    if (jsonReader.peek() == JsonToken.BOOLEAN) {
+                        curse = jsonReader.nextBoolean();
+                    } else {
+                        problems.add("\"" + key + "\": invalid 'curse'");
+                        jsonReader.skipValue();
+                    }
+                    break;
+                case "conflicts":
+                    conflicts = readConflicts(jsonReader, key);
+                    break;
+                case "enchantable":
+                    enchantable = readEnchantable(jsonReader, key);
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+
+        }
+
+        jsonReader.endObject();
+
+        if (name == null)
+            name = namespacedKey.getKey().replace('_', ' ');
+
+        if (enchantmentTarget == null) {
+            problems.add("\"" + key + "\": missing 'enchantment-target'");
+            enchantmentTarget = EnchantmentTarget.ALL;
+        }
+
+        if (curse == null) {
+            problems.add("\"" + key + "\": missing 'curse'");
+            curse = false;
+        }
+
+        if (conflicts == null)
+            problems.add("\"" + key + "\": missing 'conflicts'");
+
+        if (enchantable == null)
+            problems.add("\"" + key + "\": missing 'enchantable'");
+
+        return new EnchantmentDescriptor(namespacedKey, name, defaultPrefix, maxLevelPrefix, minLevel, maxLevel, enchantmentTarget, curse, conflicts, enchantable);
+
+    }
+
+    private String readString(JsonReader jsonReader, String key, String field, String defaultValue) throws IOException {
+
+        if (jsonReader.peek() != JsonToken.STRING) {
+            problems.add("\"" + key + "\": invalid '" + field + "'");
+            jsonReader.skipValue();
+            return defaultValue;
+        }
+
+        return jsonReader.nextString();
+
+    }
+
+    private short readLevel(JsonReader jsonReader, String key, String field, short defaultValue) throws IOException {
+
+        if (jsonReader.peek() != JsonToken.NUMBER) {
+            problems.add("\"" + key + "\": invalid '" + field + "'");
+            jsonReader.skipValue();
+            return defaultValue;
+        }
+
+        double d = jsonReader.nextDouble();
+        if (d < 1)
+            d = 1;
+        if (d > Short.MAX_VALUE)
+            d = Short.MAX_VALUE;
+
+        return (short) d;
+
+    }
+
+    private EnchantmentTarget readEnchantmentTarget(JsonReader jsonReader, String key) throws IOException {
+
+        String target = readString(jsonReader, key, "enchantment-target", null);
+
+        if (target == null)
+            return EnchantmentTarget.ALL;
+
+        try {
+            return EnchantmentTarget.valueOf(target);
+        } catch (IllegalArgumentException e) {
+            problems.add("\"" + key + "\": invalid 'enchantment-target' \"" + target + "\"");
+            return EnchantmentTarget.ALL;
+        }
+
+    }
+
+    // null if the key is invalid, NamespacedKey#fromString throws for some invalid keys (e.g. "") instead of returning null
+    private static NamespacedKey parseKey(String key) {
+        try {
+            return NamespacedKey.fromString(key, null);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private List<NamespacedKey> readConflicts(JsonReader jsonReader, String key) throws IOException {
+
+        List<NamespacedKey> conflicts = new ArrayList<>();
+
+        if (jsonReader.peek() != JsonToken.BEGIN_ARRAY) {
+            problems.add("\"" + key + "\": invalid 'conflicts'");
+            jsonReader.skipValue();
+            return conflicts;
+        }
+
+        jsonReader.beginArray();
+
+        while (jsonReader.hasNext()) {
+
+            String conflict = readString(jsonReader, key, "conflicts", null);
+            if (conflict == null)
+                continue;
+
+            NamespacedKey conflictKey = parseKey(conflict);
+            if (conflictKey != null)
+                conflicts.add(conflictKey);
+            else
+                problems.add("\"" + key + "\": invalid conflict \"" + conflict + "\"");
+
+        }
+
+        jsonReader.endArray();
+
+        return conflicts;
+
+    }
+
+    private Set<Material> readEnchantable(JsonReader jsonReader, String key) throws IOException {
+
+        Set<Material> enchantable = EnumSet.noneOf(Material.class);
+
+        if (jsonReader.peek() != JsonToken.BEGIN_ARRAY) {
+            problems.add("\"" + key + "\": invalid 'enchantable'");
+            jsonReader.skipValue();
+            return enchantable;
+        }
+
+        jsonReader.beginArray();
+
+        while (jsonReader.hasNext()) {
+
+            String materialName = readString(jsonReader, key, "enchantable", null);
+            if (materialName == null)
+                continue;
+
+            Material material = Material.matchMaterial(materialName);
+            if (material != null)
+                enchantable.add(material);
+            else
+                problems.add("\"" + key + "\": invalid material \"" + materialName + "\"");
+
+        }
+
+        jsonReader.endArray();
+
+        return enchantable;
+
+    }
+
+}
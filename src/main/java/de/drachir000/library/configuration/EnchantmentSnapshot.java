@@ -0,0 +1,220 @@
+package de.drachir000.library.configuration;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.EnchantmentTarget;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A compact binary snapshot of compiled {@link EnchantmentDescriptor}s and the problems found while reading them.
+ * Loading a snapshot skips reading, parsing and validating the JSON source it was created from.
+ * <br>
+ * A snapshot is only valid for the source file size and modification time and the exact version string it was written with.
+ *
+ * @author Drachir000
+ * @since 0.0.8
+ */
+public class EnchantmentSnapshot {
+
+    private static final int MAGIC = 0x454C4942; // "ELIB"
+    private static final int FORMAT_VERSION = 2;
+
+    private final Map<NamespacedKey, EnchantmentDescriptor> descriptors;
+    private final List<String> problems;
+
+    private EnchantmentSnapshot(Map<NamespacedKey, EnchantmentDescriptor> descriptors, List<String> problems) {
+        this.descriptors = Collections.unmodifiableMap(descriptors);
+        this.problems = Collections.unmodifiableList(problems);
+    }
+
+    /**
+     * @return all descriptors of the snapshot by their key, in their original order
+     * @since 0.0.8
+     */
+    public Map<NamespacedKey, EnchantmentDescriptor> getDescriptors() {
+        return descriptors;
+    }
+
+    /**
+     * @return the problems found while reading the source (see {@link EnchantmentDescriptorReader#getProblems()})
+     * @since 0.0.8
+     */
+    public List<String> getProblems() {
+        return problems;
+    }
+
+    /**
+     * Reads a snapshot
+     *
+     * @param path        the path of the snapshot file
+     * @param sourceSize  the current size of the source file
+     * @param sourceMTime the current modification time of the source file in milliseconds
+     * @param version     the current version string (e.g. server and plugin version)
+     * @return the snapshot, or null if it doesn't exist, is outdated or invalid
+     * @since 0.0.8
+     */
+    public static EnchantmentSnapshot read(Path path, long sourceSize, long sourceMTime, String version) {
+
+        if (Files.notExists(path))
+            return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION)
+                return null;
+
+            if (!in.readUTF().equals(version) || in.readLong() != sourceSize || in.readLong() != sourceMTime)
+                return null;
+
+            int problemCount = in.readInt();
+            List<String> problems = new ArrayList<>(problemCount);
+
+            for (int i = 0; i < problemCount; i++)
+                problems.add(in.readUTF());
+
+            int count = in.readInt();
+            Map<NamespacedKey, EnchantmentDescriptor> descriptors = new LinkedHashMap<>();
+
+            for (int i = 0; i < count; i++) {
+                EnchantmentDescriptor descriptor = readDescriptor(in);
+                if (descriptor == null)
+                    return null;
+                descriptors.put(descriptor.getNamespacedKey(), descriptor);
+            }
+
+            return new EnchantmentSnapshot(descriptors, problems);
+
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+
+    }
+
+    private static EnchantmentDescriptor readDescriptor(DataInputStream in) throws IOException {
+
+        NamespacedKey namespacedKey = readKey(in);
+        String name = in.readUTF(), defaultPrefix = in.readUTF(), maxLevelPrefix = in.readUTF();
+        short minLevel = in.readShort(), maxLevel = in.readShort();
+        EnchantmentTarget enchantmentTarget = EnchantmentTarget.valueOf(in.readUTF());
+        boolean curse = in.readBoolean();
+
+        int conflictCount = in.readInt();
+        List<NamespacedKey> conflicts = new ArrayList<>(conflictCount);
+        for (int i = 0; i < conflictCount; i++)
+            conflicts.add(readKey(in));
+
+        int materialCount = in.readInt();
+        Set<Material> enchantable = EnumSet.noneOf(Material.class);
+        for (int i = 0; i < materialCount; i++) {
+            Material material = Material.getMaterial(in.readUTF());
+            if (material == null)
+                return null;
+            enchantable.add(material);
+        }
+
+        return new EnchantmentDescriptor(namespacedKey, name, defaultPrefix, maxLevelPrefix, minLevel, maxLevel, enchantmentTarget, curse, conflicts, enchantable);
+
+    }
+
+    // a snapshot only contains valid keys, an invalid one means the snapshot is corrupt
+    private static NamespacedKey readKey(DataInputStream in) throws IOException {
+
+        String key = in.readUTF();
+        NamespacedKey namespacedKey;
+
+        try {
+            namespacedKey = NamespacedKey.fromString(key, null);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid key \"" + key + "\"", e);
+        }
+
+        if (namespacedKey == null)
+            throw new IOException("Invalid key \"" + key + "\"");
+
+        return namespacedKey;
+
+    }
+
+    /**
+     * Writes a snapshot. The file is written to a temporary file first and then moved into place, so a crash never leaves a half written snapshot.
+     * The size and modification time have to be taken before the source is read, so a change while reading outdates the snapshot.
+     *
+     * @param path        the path of the snapshot file
+     * @param sourceSize  the size of the source file the descriptors were read from
+     * @param sourceMTime the modification time of the source file in milliseconds
+     * @param version     the current version string (e.g. server and plugin version)
+     * @param descriptors the descriptors to write
+     * @param problems    the problems found while reading the source
+     * @throws IOException if the snapshot couldn't be written
+     * @since 0.0.8
+     */
+    public static void write(Path path, long sourceSize, long sourceMTime, String version, Collection<EnchantmentDescriptor> descriptors, List<String> problems) throws IOException {
+
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(version);
+            out.writeLong(sourceSize);
+            out.writeLong(sourceMTime);
+
+            out.writeInt(problems.size());
+            for (String problem : problems)
+                out.writeUTF(problem);
+
+            out.writeInt(descriptors.size());
+
+            for (EnchantmentDescriptor descriptor : descriptors)
+                writeDescriptor(out, descriptor);
+
+        }
+
+        try {
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+    }
+
+    private static void writeDescriptor(DataOutputStream out, EnchantmentDescriptor descriptor) throws IOException {
+
+        out.writeUTF(descriptor.getNamespacedKey().toString());
+        out.writeUTF(descriptor.getName());
+        out.writeUTF(descriptor.getDefaultPrefix());
+        out.writeUTF(descriptor.getMaxLevelPrefix());
+        out.writeShort(descriptor.getMinLevel());
+        out.writeShort(descriptor.getMaxLevel());
+        out.writeUTF(descriptor.getEnchantmentTarget().name());
+        out.writeBoolean(descriptor.isCurse());
+
+        out.writeInt(descriptor.getConflicts().size());
+        for (NamespacedKey conflictKey : descriptor.getConflicts())
+            out.writeUTF(conflictKey.toString());
+
+        out.writeInt(descriptor.getEnchantable().size());
+        for (Material material : descriptor.getEnchantable())
+            out.writeUTF(material.name());
+
+    }
+
+}
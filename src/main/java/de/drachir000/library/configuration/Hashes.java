@@ -0,0 +1,26 @@
+package de.drachir000.library.configuration;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content hashes of configuration files
+ *
+ * @author Drachir000
+ * @since 0.0.8
+ */
+final class Hashes {
+
+    private Hashes() {
+    }
+
+    // the SHA-256 hash of the content
+    static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+}
@@ -5,14 +5,23 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import org.bukkit.plugin.Plugin;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
 
 /**
  * A JSON configuration
@@ -26,8 +35,14 @@ public class JsonConfig {
 
     private final Plugin plugin;
     private final Path path;
+    private final Executor saveExecutor;
     private final Map<String, Object> values = new HashMap<>();
 
+    private final Object writeLock = new Object();
+    private Map<String, Object> pendingValues;
+    private CompletableFuture<Void> pendingSave;
+    private CompletableFuture<Void> lastSave = CompletableFuture.completedFuture(null);
+
     /**
      * Creates a JSON config
      *
@@ -36,8 +51,21 @@ public class JsonConfig {
      * @since 0.0.5
      */
     public JsonConfig(Plugin plugin, Path path) {
+        this(plugin, path, null);
+    }
+
+    /**
+     * Creates a JSON config, that is saved asynchronously on the given executor
+     *
+     * @param plugin       The plugin
+     * @param path         The path to the config
+     * @param saveExecutor The executor for {@link #saveAsync()}, null to save synchronously. The owner of the executor has to shut it down
+     * @since 0.0.8
+     */
+    public JsonConfig(Plugin plugin, Path path, Executor saveExecutor) {
         this.plugin = plugin;
         this.path = path;
+        this.saveExecutor = saveExecutor;
     }
 
     /**
@@ -52,6 +80,19 @@ public class JsonConfig {
         this(plugin, plugin.getDataFolder().toPath().resolve(name));
     }
 
+    /**
+     * Creates a JSON config in the plugin's data folder, that is saved asynchronously on the given executor
+     *
+     * @param plugin       The plugin
+     * @param name         The name of the config
+     * @param saveExecutor The executor for {@link #saveAsync()}, null to save synchronously
+     * @see #JsonConfig(Plugin, Path, Executor)
+     * @since 0.0.8
+     */
+    public JsonConfig(Plugin plugin, String name, Executor saveExecutor) {
+        this(plugin, plugin.getDataFolder().toPath().resolve(name), saveExecutor);
+    }
+
     /**
      * Returns a reference to the underlying map
      *
@@ -122,15 +163,15 @@ public class JsonConfig {
         if (Files.notExists(path)) {
             plugin.saveResource(path.getFileName().toString(), false);
         }
-        try {
-            values.putAll(GSON.fromJson(Files.newBufferedReader(path), values.getClass()));
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            values.putAll(GSON.fromJson(reader, values.getClass()));
         } catch (IOException e) {
             Throwables.throwIfUnchecked(e);
         }
     }
 
     /**
-     * Saves the config
+     * Saves the config. The config is written to a temporary file first and then moved into place, so a crash never leaves a half written config.
      *
      * @throws RuntimeException wrapping any IO exception that may occur
      * @since 0.0.5
@@ -138,14 +179,114 @@ public class JsonConfig {
     public void save() {
         String json = GSON.toJson(values);
         try {
+            write(json);
+        } catch (IOException e) {
+            Throwables.throwIfUnchecked(e);
+        }
+    }
+
+    /**
+     * Saves the config asynchronously, like {@link #save()} but without blocking the calling thread.
+     * The values are copied on the calling thread, serializing and writing happens on the save executor.
+     * Multiple calls before the write starts are coalesced into a single write of the latest values.
+     * Without a save executor, or after it was shut down, the config is written synchronously.
+     * <br>
+     * Note: only the top level map is copied, nested values must not be modified until the returned future completes.
+     *
+     * @return a future, that completes when the values of this call are written
+     * @since 0.0.8
+     */
+    public CompletableFuture<Void> saveAsync() {
+
+        synchronized (this) {
+
+            pendingValues = new HashMap<>(values);
+
+            if (pendingSave != null)
+                return pendingSave;
+
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            pendingSave = future;
+            lastSave = future;
+
+            Runnable saveTask = () -> {
+
+                Map<String, Object> snapshot;
+
+                synchronized (this) {
+                    snapshot = pendingValues;
+                    pendingValues = null;
+                    pendingSave = null;
+                }
+
+                try {
+                    write(GSON.toJson(snapshot));
+                    future.complete(null);
+                } catch (IOException | RuntimeException e) {
+                    plugin.getLogger().log(Level.WARNING, "Couldn't save " + path.getFileName() + "!", e);
+                    future.completeExceptionally(e);
+                }
+
+            };
+
+            if (saveExecutor == null) {
+                saveTask.run();
+                return future;
+            }
+
+            try {
+                saveExecutor.execute(saveTask);
+            } catch (RejectedExecutionException e) {
+                saveTask.run();
+            }
+
+            return future;
+
+        }
+
+    }
+
+    /**
+     * Blocks until all asynchronous saves of this config are written. Should be called when the plugin gets disabled.
+     *
+     * @since 0.0.8
+     */
+    public void flush() {
+
+        CompletableFuture<Void> future;
+
+        synchronized (this) {
+            future = lastSave;
+        }
+
+        try {
+            future.join();
+        } catch (CompletionException | CancellationException ignored) {
+            // already logged by the save task
+        }
+
+    }
+
+    private void write(String json) throws IOException {
+
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+
+        synchronized (writeLock) {
+
             Files.write(
-                    path,
+                    tempPath,
                     Collections.singletonList(json),
                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE
             );
-        } catch (IOException e) {
-            Throwables.throwIfUnchecked(e);
+
+            try {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+
         }
+
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package de.drachir000.library.configuration;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+
+/**
+ * A sub-tree of a configuration, that is only bound when it is accessed for the first time.
+ * While the configuration is bound, the sub-tree is only copied as compact JSON text, no objects are created for its values.
+ * <br>
+ * Can be used by a {@link ConfigBinder} for large sections, that are rarely needed.
+ *
+ * @param <T> the type of the bound sub-tree
+ * @author Drachir000
+ * @see ConfigBinder
+ * @since 0.0.8
+ */
+public final class LazyNode<T> {
+
+    private final ConfigBinder<T> binder;
+    private String json;
+    private T value;
+    private volatile boolean bound;
+
+    private LazyNode(String json, ConfigBinder<T> binder) {
+        this.json = json;
+        this.binder = binder;
+    }
+
+    /**
+     * Reads the next value of the reader as a lazy node. The reader is positioned after the value afterwards.
+     *
+     * @param reader the reader positioned at the value to read
+     * @param binder the binder, that binds the value when it is accessed for the first time
+     * @param <T>    the type of the bound value
+     * @return the lazy node
+     * @throws IOException if the value is malformed or couldn't be read
+     * @since 0.0.8
+     */
+    public static <T> LazyNode<T> read(JsonReader reader, ConfigBinder<T> binder) throws IOException {
+
+        StringWriter stringWriter = new StringWriter();
+
+        try (JsonWriter jsonWriter = new JsonWriter(stringWriter)) {
+            // older versions of Gson only accept arrays and objects at the top level of a strict writer
+            jsonWriter.setLenient(true);
+            copy(reader, jsonWriter);
+        } catch (IllegalStateException e) {
+            throw new IOException("Malformed configuration value", e);
+        }
+
+        return new LazyNode<>(stringWriter.toString(), binder);
+
+    }
+
+    // copies exactly one value token by token, numbers keep their exact value
+    private static void copy(JsonReader reader, JsonWriter writer) throws IOException {
+
+        int depth = 0;
+
+        do {
+
+            switch (reader.peek()) {
+                case BEGIN_ARRAY:
+                    reader.beginArray();
+                    writer.beginArray();
+                    depth++;
+                    break;
+                case END_ARRAY:
+                    reader.endArray();
+                    writer.endArray();
+                    depth--;
+                    break;
+                case BEGIN_OBJECT:
+                    reader.beginObject();
+                    writer.beginObject();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    reader.endObject();
+                    writer.endObject();
+                    depth--;
+                    break;
+                case NAME:
+                    writer.name(reader.nextName());
+                    break;
+                case STRING:
+                    writer.value(reader.nextString());
+                    break;
+                case NUMBER:
+                    writer.value(new BigDecimal(reader.nextString()));
+                    break;
+                case BOOLEAN:
+                    writer.value(reader.nextBoolean());
+                    break;
+                case NULL:
+                    reader.nextNull();
+                    writer.nullValue();
+                    break;
+                default:
+                    throw new EOFException("Unexpected end of the configuration");
+            }
+
+        } while (depth > 0);
+
+    }
+
+    /**
+     * Binds the value on the first call, later calls return the same instance
+     *
+     * @return the bound value
+     * @throws IllegalStateException if the value couldn't be bound
+     * @since 0.0.8
+     */
+    public T get() {
+        if (!bound) {
+            synchronized (this) {
+                if (!bound) {
+                    try (JsonReader reader = new JsonReader(new StringReader(json))) {
+                        value = binder.bind(reader);
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Malformed configuration value", e);
+                    }
+                    json = null;
+                    bound = true;
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return true, if the value was already bound
+     * @since 0.0.8
+     */
+    public boolean isBound() {
+        return bound;
+    }
+
+}
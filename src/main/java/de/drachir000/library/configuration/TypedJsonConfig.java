@@ -0,0 +1,119 @@
+package de.drachir000.library.configuration;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+
+/**
+ * A read-only JSON configuration, that is bound onto an immutable Java object once per reload.
+ * Unlike {@link JsonConfig}, consumers read plain fields of the bound object instead of looking up and casting map values.
+ * <br>
+ * Reloading an unchanged file is cheap: the file's size and modification time are compared first, then a hash of its content.
+ * The file is only bound again if its content really changed.
+ *
+ * @param <T> the type of the bound object
+ * @author Drachir000
+ * @see ConfigBinder
+ * @since 0.0.8
+ */
+public class TypedJsonConfig<T> {
+
+    private final Path path;
+    private final ConfigBinder<T> binder;
+
+    private volatile T value;
+    private long lastModified, size;
+    private byte[] contentHash;
+
+    /**
+     * Creates a typed JSON config. Nothing gets loaded until {@link #reload()} is called.
+     *
+     * @param path   The path to the config
+     * @param binder The binder, that creates the bound object
+     * @since 0.0.8
+     */
+    public TypedJsonConfig(Path path, ConfigBinder<T> binder) {
+        this.path = path;
+        this.binder = binder;
+        this.lastModified = -1;
+        this.size = -1;
+    }
+
+    /**
+     * Reloads the config, if it changed since the last successful reload.
+     * If binding fails, the previously bound object is kept.
+     *
+     * @return true, if the config changed and was bound again
+     * @throws IOException if the config couldn't be read or bound
+     * @since 0.0.8
+     */
+    public synchronized boolean reload() throws IOException {
+
+        // read the attributes before the content, so a write in between is noticed by the next check
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+
+        if (attributes.lastModifiedTime().toMillis() == lastModified && attributes.size() == size)
+            return false;
+
+        byte[] content = Files.readAllBytes(path);
+        byte[] hash = Hashes.sha256(content);
+
+        boolean changed = !Arrays.equals(hash, contentHash);
+
+        if (changed) {
+
+            try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8))) {
+                value = binder.bind(reader);
+            } catch (IllegalStateException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+
+        }
+
+        contentHash = hash;
+        lastModified = attributes.lastModifiedTime().toMillis();
+        size = attributes.size();
+
+        return changed;
+
+    }
+
+    /**
+     * Cheaply checks, if the file changed since the last successful reload, by comparing its size and modification time.
+     *
+     * @return true, if the file may have changed (or doesn't exist anymore)
+     * @since 0.0.8
+     */
+    public synchronized boolean isModified() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.lastModifiedTime().toMillis() != lastModified || attributes.size() != size;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * @return The bound object of the last successful reload, null if the config was never loaded
+     * @since 0.0.8
+     */
+    public T get() {
+        return value;
+    }
+
+    /**
+     * @return The path to the config
+     * @since 0.0.8
+     */
+    public Path getPath() {
+        return path;
+    }
+
+}
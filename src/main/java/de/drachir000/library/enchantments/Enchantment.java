@@ -1,5 +1,6 @@
 package de.drachir000.library.enchantments;
 
+import de.drachir000.library.utils.EnchantmentManager;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.enchantments.EnchantmentTarget;
@@ -7,7 +8,13 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.Plugin;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The base Enchantment class
@@ -16,13 +23,19 @@ import java.util.List;
  */
 public abstract class Enchantment extends org.bukkit.enchantments.Enchantment {
 
+    // counts the changes of all properties, that the EnchantmentManager indexes or compiles, over all enchantments
+    private static final AtomicInteger MODIFICATIONS = new AtomicInteger();
+    // render versions are taken from a single counter, so two instances never share one, even if they have the same key
+    private static final AtomicInteger RENDER_VERSIONS = new AtomicInteger();
+
     private String name, defaultPrefix, maxLevelPrefix;
     private NamespacedKey namespacedKey;
     private short minLevel, maxLevel;
     private EnchantmentTarget enchantmentTarget;
     private boolean curse;
     private List<NamespacedKey> conflicts;
-    private List<Material> enchantable;
+    private EnumSet<Material> enchantable;
+    private int renderVersion = RENDER_VERSIONS.incrementAndGet();
 
     /**
      * @since 0.0.1
@@ -56,9 +69,7 @@ public abstract class Enchantment extends org.bukkit.enchantments.Enchantment {
         if (conflicts == null)
             conflicts = new ArrayList<>();
         this.conflicts = conflicts;
-        if (enchantable == null)
-            enchantable = new ArrayList<>();
-        this.enchantable = enchantable;
+        this.enchantable = toMaterialSet(enchantable);
     }
 
     /**
@@ -135,6 +146,7 @@ public abstract class Enchantment extends org.bukkit.enchantments.Enchantment {
 
     /**
      * Check if this enchantment conflicts with another enchantment.
+     * This only checks the conflicts declared by this enchantment, use {@link EnchantmentManager#conflicts(Enchantment, NamespacedKey)} for a symmetric check.
      * @param namespacedKey The NamespacedKey of the other enchantment
      * @return true, if this enchantment conflicts with the given enchantment
      * @since 0.0.1
@@ -143,6 +155,21 @@ public abstract class Enchantment extends org.bukkit.enchantments.Enchantment {
         return conflicts.contains(namespacedKey);
     }
 
+    /**
+     * Check if this enchantment conflicts with at least one of the enchantments of an item.
+     * This only checks the conflicts declared by this enchantment, use {@link EnchantmentManager#conflictsWithAny(Enchantment, Map)} for a symmetric check.
+     * @param enchantments The enchantments of the item with their levels
+     * @return true, if this enchantment conflicts with at least one of the given enchantments
+     * @since 0.0.8
+     * */
+    public boolean conflictsWithAny(Map<Enchantment, Short> enchantments) {
+        for (Enchantment enchantment : enchantments.keySet()) {
+            if (conflictsWith(enchantment))
+                return true;
+        }
+        return false;
+    }
+
     /**
      * Check if this enchantment conflicts with at least one other of the given enchantments.
      * @param enchantment All other enchantments
@@ -198,9 +225,23 @@ public abstract class Enchantment extends org.bukkit.enchantments.Enchantment {
      * @since 0.0.1
      */
     public boolean isEnchantable(ItemStack item) {
+        if (item == null)
+            return false;
         return enchantable.contains(item.getType());
     }
 
+    /**
+     * Checks if this Enchantment may be applied to items of the given material.
+     * @param material the material to test
+     * @return true, if this enchantment may be applied to items of the given material
+     * @since 0.0.8
+     */
+    public boolean isEnchantable(Material material) {
+        if (material == null)
+            return false;
+        return enchantable.contains(material);
+    }
+
     /**
      * @since 0.0.1
      * @return The name of the enchantment
@@ -216,6 +257,7 @@ public abstract class Enchantment extends org.bukkit.enchantments.Enchantment {
      */
     public void setName(String name) {
         this.name = name;
+        renderVersion = RENDER_VERSIONS.incrementAndGet();
     }
 
     /**
@@ -233,6 +275,7 @@ public abstract class Enchantment extends org.bukkit.enchantments.Enchantment {
      */
     public void setDefaultPrefix(String defaultPrefix) {
         this.defaultPrefix = defaultPrefix;
+        renderVersion = RENDER_VERSIONS.incrementAndGet();
     }
 
     /**
@@ -250,6 +293,7 @@ public abstract class Enchantment extends org.bukkit.enchantments.Enchantment {
      */
     public void setMaxLevelPrefix(String maxLevelPrefix) {
         this.maxLevelPrefix = maxLevelPrefix;
+        renderVersion = RENDER_VERSIONS.incrementAndGet();
     }
 
     @Override
@@ -267,11 +311,23 @@ public abstract class Enchantment extends org.bukkit.enchantments.Enchantment {
 
     /**
      * Note: changing this won't update the enchantment key on the items, so they will effectively lose this enchantment!!!
+     * If the enchantment is registered, ELib indexes it under the new key. If another registered enchantment already uses the new key, this enchantment gets unregistered.
      * @since 0.0.1
      * @param namespacedKey The key of the enchantment. Should be something like "plugin:enchantment" (e.g. "replenishenchantment:replenish")
      */
     public void setNamespacedKey(NamespacedKey namespacedKey) {
         this.namespacedKey = namespacedKey;
+        MODIFICATIONS.incrementAndGet();
+    }
+
+    /**
+     * The modification count changes every time the namespacedKey, the conflicts or the enchantable materials of any enchantment change.
+     * It is used by the {@link EnchantmentManager} to tell if its indexes of the registered enchantments are outdated.
+     * @since 0.0.8
+     * @return The current modification count
+     */
+    public static int getModificationCount() {
+        return MODIFICATIONS.get();
     }
 
     @Override
@@ -320,6 +376,17 @@ public abstract class Enchantment extends org.bukkit.enchantments.Enchantment {
         if (maxLevel < minLevel)
             maxLevel = minLevel;
         this.maxLevel = maxLevel;
+        renderVersion = RENDER_VERSIONS.incrementAndGet();
+    }
+
+    /**
+     * The render version changes every time a property, that is part of the enchantment's lore line (name, prefixes and maxLevel), changes.
+     * It is used to tell if cached lore lines are outdated. Render versions are unique over all enchantment instances.
+     * @since 0.0.8
+     * @return The current render version of the enchantment
+     */
+    public int getRenderVersion() {
+        return renderVersion;
     }
 
     @Override
@@ -365,6 +432,7 @@ public abstract class Enchantment extends org.bukkit.enchantments.Enchantment {
     }
 
     /**
+     * Note: after modifying the returned list, call {@link #setConflicts(List)} or {@link EnchantmentManager#invalidateConflicts()} to apply the changes
      * @since 0.0.1
      * @return A list of namespaces of enchantments this enchantment conflicts with
      */
@@ -378,15 +446,27 @@ public abstract class Enchantment extends org.bukkit.enchantments.Enchantment {
      * @param conflicts A list of namespaces of enchantments this enchantment conflicts with
      */
     public void setConflicts(List<NamespacedKey> conflicts) {
+        if (conflicts == null)
+            conflicts = new ArrayList<>();
         this.conflicts = conflicts;
+        MODIFICATIONS.incrementAndGet();
     }
 
     /**
+     * Note: since 0.0.8 the returned list is a copy, modifying it doesn't change the enchantment anymore. Use {@link #setEnchantable(List)} to change the enchantable materials
      * @since 0.0.1
-     * @return A list of every material type, this enchantment should be able to get applied on
+     * @return A new list of every material type, this enchantment should be able to get applied on
      */
     public List<Material> getEnchantable() {
-        return enchantable;
+        return new ArrayList<>(enchantable);
+    }
+
+    /**
+     * @since 0.0.8
+     * @return An unmodifiable set of every material type, this enchantment should be able to get applied on
+     */
+    public Set<Material> getEnchantableMaterials() {
+        return Collections.unmodifiableSet(enchantable);
     }
 
     /**
@@ -394,7 +474,8 @@ public abstract class Enchantment extends org.bukkit.enchantments.Enchantment {
      * @param enchantable A list of every material type, this enchantment should be able to get applied on
      */
     public void setEnchantable(List<Material> enchantable) {
-        this.enchantable = enchantable;
+        this.enchantable = toMaterialSet(enchantable);
+        MODIFICATIONS.incrementAndGet();
     }
 
     @Override
@@ -402,4 +483,15 @@ public abstract class Enchantment extends org.bukkit.enchantments.Enchantment {
         return false;
     }
 
+    private static EnumSet<Material> toMaterialSet(Collection<Material> materials) {
+        EnumSet<Material> materialSet = EnumSet.noneOf(Material.class);
+        if (materials == null)
+            return materialSet;
+        for (Material material : materials) {
+            if (material != null)
+                materialSet.add(material);
+        }
+        return materialSet;
+    }
+
 }
@@ -0,0 +1,452 @@
+package de.drachir000.library.utils;
+
+import de.drachir000.library.enchantments.Enchantment;
+import de.tr7zw.changeme.nbtapi.NBTItem;
+import de.tr7zw.changeme.nbtapi.iface.ReadWriteNBT;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A set of enchantment operations, that is applied to many items in a single pass.
+ * <pre>{@code
+ * itemManager.bulkEdit().remove(a).upgrade(b, 1).stripUnregistered().applyTo(enderChest);
+ * }</pre>
+ * Every item is parsed once and, if any of the operations changes it, written once with a single lore update, like an {@link ItemEditSession}.
+ * Items that wouldn't change are left untouched. A bulk edit can be applied to any number of targets.
+ * The operations are resolved once per target, including their conflicts and the rendered lore lines, and shared by all of its items.
+ * Each enchantment can only have one operation, a later operation for the same enchantment replaces the earlier one.
+ *
+ * @author Drachir000
+ * @see ItemManager#bulkEdit()
+ * @since 0.0.8
+ */
+public final class BulkItemEdit {
+
+    private final ItemManager itemManager;
+    private final EnchantmentManager enchantmentManager;
+    private final Map<Enchantment, Short> levels;
+    private final Map<Enchantment, Integer> upgrades;
+
+    private boolean stripUnregistered, checkConflicts, updateLore;
+
+    BulkItemEdit(ItemManager itemManager, EnchantmentManager enchantmentManager) {
+        this.itemManager = itemManager;
+        this.enchantmentManager = enchantmentManager;
+        this.levels = new LinkedHashMap<>();
+        this.upgrades = new LinkedHashMap<>();
+        this.checkConflicts = true;
+        this.updateLore = true;
+    }
+
+    /**
+     * Sets the level of an enchantment on every item. A level below 1 removes the enchantment instead.
+     *
+     * @param enchantment the enchantment to set (has to be registered, otherwise it is ignored)
+     * @param level       the new level of the enchantment (this ignores the maxLevel and minLevel of the enchantment)
+     * @return this bulk edit
+     * @since 0.0.8
+     */
+    public BulkItemEdit set(Enchantment enchantment, int level) {
+        if (enchantment == null || !enchantmentManager.isRegistered(enchantment))
+            return this;
+        upgrades.remove(enchantment);
+        levels.put(enchantment, (short) Math.max(0, Math.min(level, Short.MAX_VALUE)));
+        return this;
+    }
+
+    /**
+     * Sets the level of an enchantment on every item. A level below 1 removes the enchantment instead.
+     *
+     * @param namespacedKey the namespacedKey of the enchantment to set (has to be registered, otherwise it is ignored)
+     * @param level         the new level of the enchantment (this ignores the maxLevel and minLevel of the enchantment)
+     * @return this bulk edit
+     * @since 0.0.8
+     */
+    public BulkItemEdit set(NamespacedKey namespacedKey, int level) {
+        return set(enchantmentManager.getByNamespacedKey(namespacedKey), level);
+    }
+
+    /**
+     * Removes an enchantment from every item
+     *
+     * @param enchantment the enchantment to remove (has to be registered, otherwise it is ignored)
+     * @return this bulk edit
+     * @since 0.0.8
+     */
+    public BulkItemEdit remove(Enchantment enchantment) {
+        return set(enchantment, 0);
+    }
+
+    /**
+     * Removes an enchantment from every item
+     *
+     * @param namespacedKey the namespacedKey of the enchantment to remove (has to be registered, otherwise it is ignored)
+     * @return this bulk edit
+     * @since 0.0.8
+     */
+    public BulkItemEdit remove(NamespacedKey namespacedKey) {
+        return set(namespacedKey, 0);
+    }
+
+    /**
+     * Raises the level of an enchantment on every item that already has it, but not above the enchantment's maxLevel.
+     * Levels that already are at or above the maxLevel stay the same.
+     *
+     * @param enchantment the enchantment to upgrade (has to be registered, otherwise it is ignored)
+     * @param amount      the number of levels to add
+     * @return this bulk edit
+     * @since 0.0.8
+     */
+    public BulkItemEdit upgrade(Enchantment enchantment, int amount) {
+        if (enchantment == null || !enchantmentManager.isRegistered(enchantment) || amount < 1)
+            return this;
+        levels.remove(enchantment);
+        upgrades.put(enchantment, amount);
+        return this;
+    }
+
+    /**
+     * Raises the level of an enchantment on every item that already has it, but not above the enchantment's maxLevel.
+     *
+     * @param namespacedKey the namespacedKey of the enchantment to upgrade (has to be registered, otherwise it is ignored)
+     * @param amount        the number of levels to add
+     * @return this bulk edit
+     * @since 0.0.8
+     */
+    public BulkItemEdit upgrade(NamespacedKey namespacedKey, int amount) {
+        return upgrade(enchantmentManager.getByNamespacedKey(namespacedKey), amount);
+    }
+
+    /**
+     * Removes all enchantments, that aren't registered to ELib, from every item
+     *
+     * @return this bulk edit
+     * @since 0.0.8
+     */
+    public BulkItemEdit stripUnregistered() {
+        this.stripUnregistered = true;
+        return this;
+    }
+
+    /**
+     * By default, items are skipped, if an added enchantment would conflict with another enchantment of the item.
+     *
+     * @param checkConflicts whether to check for conflicts
+     * @return this bulk edit
+     * @since 0.0.8
+     */
+    public BulkItemEdit checkConflicts(boolean checkConflicts) {
+        this.checkConflicts = checkConflicts;
+        return this;
+    }
+
+    /**
+     * By default, the lore of every changed item is updated.
+     *
+     * @param updateLore whether to update the lore of changed items
+     * @return this bulk edit
+     * @since 0.0.8
+     */
+    public BulkItemEdit updateLore(boolean updateLore) {
+        this.updateLore = updateLore;
+        return this;
+    }
+
+    /**
+     * Applies the operations to every item of an inventory. Changed items are written back to their slots.
+     *
+     * @param inventory the inventory
+     * @return the number of changed items
+     * @since 0.0.8
+     */
+    public int applyTo(Inventory inventory) {
+
+        if (inventory == null)
+            return 0;
+
+        Batch batch = new Batch();
+        int changed = 0;
+
+        for (int slot = 0; slot < inventory.getSize(); slot++) {
+
+            ItemStack item = inventory.getItem(slot);
+
+            if (batch.apply(item)) {
+                // setItem copies the item, so a deferred lore update has to happen before
+                itemManager.flushLoreUpdate(item);
+                inventory.setItem(slot, item);
+                changed++;
+            }
+
+        }
+
+        return changed;
+
+    }
+
+    /**
+     * Applies the operations to every item of an array. The items are changed in place.
+     *
+     * @param items the items
+     * @return the number of changed items
+     * @since 0.0.8
+     */
+    public int applyTo(ItemStack[] items) {
+
+        if (items == null)
+            return 0;
+
+        Batch batch = new Batch();
+        int changed = 0;
+
+        for (ItemStack item : items) {
+            if (batch.apply(item))
+                changed++;
+        }
+
+        return changed;
+
+    }
+
+    /**
+     * Applies the operations to every item of a collection. The items are changed in place.
+     *
+     * @param items the items
+     * @return the number of changed items
+     * @since 0.0.8
+     */
+    public int applyTo(Collection<? extends ItemStack> items) {
+
+        if (items == null)
+            return 0;
+
+        Batch batch = new Batch();
+        int changed = 0;
+
+        for (ItemStack item : items) {
+            if (batch.apply(item))
+                changed++;
+        }
+
+        return changed;
+
+    }
+
+    /*
+     * The operations of one applyTo call, resolved once for all of its items: the enchantment ids, the conflict rows,
+     * the conflicts between the operations and the rendered lore lines are shared by every item of the batch.
+     * Like in an ItemEditSession, enchantments the server doesn't know are never added or upgraded, only removed.
+     */
+    private final class Batch {
+
+        private final Enchantment[] enchantments;
+        private final int[] ids;
+        private final short[] setLevels; // the level to set, -1 for upgrades
+        private final int[] upgradeAmounts;
+        private final int[] maxLevels;
+        private final BitSet[] conflictRows;
+        private final boolean[][] operationConflicts;
+        private final int[] operationsById;
+        private final int size;
+        private final boolean addsEnchantments;
+        private final LoreManager.BatchLines loreLines;
+
+        // the current and the new level of each operation for the item that is applied right now, a new level of -1 means no change
+        private final short[] currentLevels;
+        private final short[] newLevels;
+
+        private Batch() {
+
+            int capacity = levels.size() + upgrades.size();
+
+            this.enchantments = new Enchantment[capacity];
+            this.ids = new int[capacity];
+            this.setLevels = new short[capacity];
+            this.upgradeAmounts = new int[capacity];
+            this.maxLevels = new int[capacity];
+            this.conflictRows = new BitSet[capacity];
+            this.operationsById = new int[enchantmentManager.getIdSpaceSize()];
+            this.currentLevels = new short[capacity];
+            this.newLevels = new short[capacity];
+
+            Arrays.fill(operationsById, -1);
+
+            int size = 0;
+            boolean addsEnchantments = false;
+
+            for (Map.Entry<Enchantment, Short> entry : levels.entrySet()) {
+                if (add(size, entry.getKey(), entry.getValue(), 0)) {
+                    addsEnchantments |= entry.getValue() > 0;
+                    size++;
+                }
+            }
+
+            for (Map.Entry<Enchantment, Integer> entry : upgrades.entrySet()) {
+                if (add(size, entry.getKey(), (short) -1, entry.getValue()))
+                    size++;
+            }
+
+            this.size = size;
+            this.addsEnchantments = addsEnchantments;
+            this.operationConflicts = new boolean[size][size];
+
+            for (int operation = 0; operation < size; operation++) {
+                for (int other = 0; other < size; other++)
+                    operationConflicts[operation][other] = conflictRows[operation].get(ids[other]);
+            }
+
+            this.loreLines = updateLore ? itemManager.newLoreLines() : null;
+
+        }
+
+        private boolean add(int operation, Enchantment enchantment, short setLevel, int upgradeAmount) {
+
+            int id = enchantmentManager.getId(enchantment);
+
+            // unregistered since the operation was added
+            if (id < 0)
+                return false;
+
+            if (setLevel != 0 && !enchantmentManager.isRegisteredToServer(enchantment.getNamespacedKey()))
+                return false;
+
+            enchantments[operation] = enchantment;
+            ids[operation] = id;
+            setLevels[operation] = setLevel;
+            upgradeAmounts[operation] = upgradeAmount;
+            maxLevels[operation] = enchantment.getMaxLevel();
+            conflictRows[operation] = enchantmentManager.getConflictRow(id);
+            operationsById[id] = operation;
+
+            return true;
+
+        }
+
+        private boolean apply(ItemStack item) {
+
+            if (item == null || item.getType().isAir())
+                return false;
+
+            // items without meta can't have enchantments, so only adding enchantments can change them
+            if (!item.hasItemMeta() && !addsEnchantments)
+                return false;
+
+            NBTItem nbtItem = new NBTItem(item);
+            EnchantmentLevels current = itemManager.getEnchantmentLevels(nbtItem);
+
+            Arrays.fill(currentLevels, 0, size, (short) 0);
+
+            for (int i = 0; i < current.size(); i++) {
+                int operation = operationOf(current.getId(i));
+                if (operation >= 0)
+                    currentLevels[operation] = current.getLevel(i);
+            }
+
+            Map<Enchantment, Short> changes = null;
+
+            for (int operation = 0; operation < size; operation++) {
+
+                short newLevel = newLevel(operation, currentLevels[operation]);
+                newLevels[operation] = newLevel;
+
+                if (newLevel < 0)
+                    continue;
+
+                if (changes == null)
+                    changes = new LinkedHashMap<>();
+
+                changes.put(enchantments[operation], newLevel);
+
+            }
+
+            boolean strip = stripUnregistered && hasUnregistered(nbtItem);
+
+            if (changes == null && !strip)
+                return false;
+
+            if (changes == null)
+                changes = Collections.emptyMap();
+            else if (checkConflicts && hasConflicts(current))
+                return false;
+
+            itemManager.write(item, nbtItem, current, changes, updateLore, strip, loreLines);
+
+            return true;
+
+        }
+
+        private short newLevel(int operation, short currentLevel) {
+
+            short setLevel = setLevels[operation];
+
+            if (setLevel >= 0)
+                return setLevel != currentLevel ? setLevel : -1;
+
+            int maxLevel = maxLevels[operation];
+
+            if (currentLevel < 1 || currentLevel >= maxLevel)
+                return -1;
+
+            return (short) Math.min(currentLevel + upgradeAmounts[operation], maxLevel);
+
+        }
+
+        // checks the added enchantments against each other and against the enchantments, that stay on the item
+        private boolean hasConflicts(EnchantmentLevels current) {
+
+            for (int operation = 0; operation < size; operation++) {
+
+                if (newLevels[operation] < 1)
+                    continue;
+
+                BitSet conflictRow = conflictRows[operation];
+
+                for (int i = 0; i < current.size(); i++) {
+                    int id = current.getId(i);
+                    int other = operationOf(id);
+                    if (other >= 0 && newLevels[other] >= 0)
+                        continue;
+                    if (conflictRow.get(id))
+                        return true;
+                }
+
+                for (int other = 0; other < size; other++) {
+                    if (other != operation && newLevels[other] >= 1 && operationConflicts[operation][other])
+                        return true;
+                }
+
+            }
+
+            return false;
+
+        }
+
+        private int operationOf(int id) {
+            return id >= 0 && id < operationsById.length ? operationsById[id] : -1;
+        }
+
+    }
+
+    private boolean hasUnregistered(NBTItem nbtItem) {
+
+        if (!nbtItem.hasTag("Enchantments"))
+            return false;
+
+        for (ReadWriteNBT enchantment : nbtItem.getCompoundList("Enchantments")) {
+            if (enchantmentManager.getByNamespacedKey(enchantment.getString("id")) == null)
+                return true;
+        }
+
+        return false;
+
+    }
+
+}
@@ -0,0 +1,70 @@
+package de.drachir000.library.utils;
+
+import de.drachir000.library.enchantments.Enchantment;
+import org.bukkit.NamespacedKey;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.function.ToIntFunction;
+
+/**
+ * The compiled conflicts of the registered enchantments, indexed by enchantment id.
+ * Conflicts are symmetric, a conflict declared by only one of both enchantments counts for both.
+ *
+ * @author Drachir000
+ * @see EnchantmentManager#conflicts(Enchantment, Enchantment)
+ * @since 0.0.8
+ */
+final class ConflictMatrix {
+
+    private final BitSet[] rows;
+
+    private ConflictMatrix(int size) {
+        this.rows = new BitSet[size];
+        for (int id = 0; id < size; id++)
+            rows[id] = new BitSet(size);
+    }
+
+    /*
+     * Compiles the conflicts declared by the given enchantments. The id function returns the id of a registered key, -1 for any other key.
+     * Declared conflicts with unregistered keys are left out.
+     */
+    static ConflictMatrix compile(Collection<Enchantment> enchantments, ToIntFunction<NamespacedKey> ids, int size) {
+
+        ConflictMatrix matrix = new ConflictMatrix(size);
+
+        for (Enchantment enchantment : enchantments) {
+
+            int id = ids.applyAsInt(enchantment.getNamespacedKey());
+
+            if (id < 0)
+                continue;
+
+            for (NamespacedKey conflictKey : enchantment.getConflicts()) {
+
+                int conflictId = ids.applyAsInt(conflictKey);
+
+                if (conflictId < 0)
+                    continue;
+
+                matrix.rows[id].set(conflictId);
+                matrix.rows[conflictId].set(id);
+
+            }
+
+        }
+
+        return matrix;
+
+    }
+
+    boolean conflicts(int id, int otherId) {
+        return rows[id].get(otherId);
+    }
+
+    // the ids of all enchantments, that conflict with the enchantment with this id, must not be modified
+    BitSet row(int id) {
+        return rows[id];
+    }
+
+}
@@ -0,0 +1,153 @@
+package de.drachir000.library.utils;
+
+import de.drachir000.library.configuration.JsonConfig;
+import de.drachir000.library.enchantments.Enchantment;
+import org.bukkit.NamespacedKey;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The dense, persistent ids of enchantment keys. Ids start at 0 and are stored in a JSON config (enchantment-ids.json),
+ * so a key keeps its id across restarts, even while no enchantment with this key is registered.
+ * The registered enchantments are bound to the ids of their keys, so they can be looked up by id.
+ *
+ * @author Drachir000
+ * @see EnchantmentManager#getId(de.drachir000.library.enchantments.Enchantment)
+ * @since 0.0.8
+ */
+final class EnchantmentIds {
+
+    private final JsonConfig configuration;
+    private final Logger logger;
+    private final Map<NamespacedKey, Integer> idsByKey;
+    private int size;
+
+    // the bound enchantments by id, always at least as long as size
+    private Enchantment[] enchantments;
+
+    EnchantmentIds(JsonConfig configuration, Logger logger) {
+        this.configuration = configuration;
+        this.logger = logger;
+        this.idsByKey = new HashMap<>();
+        this.enchantments = new Enchantment[64];
+    }
+
+    /*
+     * Loads the ids from the config. Invalid and duplicate entries are skipped with a warning.
+     */
+    void load() {
+
+        configuration.reload();
+
+        for (Map.Entry<String, Object> entry : configuration.getEntries()) {
+
+            NamespacedKey namespacedKey = parseKey(entry.getKey());
+
+            if (namespacedKey == null || !(entry.getValue() instanceof Number)) {
+                logger.log(Level.WARNING, "Invalid entry \"" + entry.getKey() + "\" in enchantment-ids.json! Skipping");
+                continue;
+            }
+
+            int id = ((Number) entry.getValue()).intValue();
+
+            if (id < 0 || idsByKey.containsValue(id)) {
+                logger.log(Level.WARNING, "Invalid or duplicate id " + id + " for \"" + entry.getKey() + "\" in enchantment-ids.json! Skipping");
+                continue;
+            }
+
+            idsByKey.put(namespacedKey, id);
+            entry.setValue(id); // gson reads numbers as doubles, keep the file integral on the next save
+
+            if (id >= size)
+                size = id + 1;
+
+        }
+
+        if (size > enchantments.length)
+            enchantments = Arrays.copyOf(enchantments, size);
+
+    }
+
+    // null if the key is invalid, NamespacedKey#fromString throws for some invalid keys (e.g. "") instead of returning null
+    private static NamespacedKey parseKey(String key) {
+        try {
+            return NamespacedKey.fromString(key, null);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /*
+     * Returns the id of a key. If the key has no id yet, the next free id is assigned and saved asynchronously.
+     */
+    int assign(NamespacedKey namespacedKey) {
+
+        Integer id = idsByKey.get(namespacedKey);
+
+        if (id != null)
+            return id;
+
+        id = size++;
+        idsByKey.put(namespacedKey, id);
+        configuration.getValuesMap().put(namespacedKey.toString(), id);
+        configuration.saveAsync();
+
+        return id;
+
+    }
+
+    /*
+     * Binds an enchantment to the id of its key, assigning a new id if needed.
+     */
+    int bind(Enchantment enchantment) {
+
+        int id = assign(enchantment.getNamespacedKey());
+
+        if (id >= enchantments.length)
+            enchantments = Arrays.copyOf(enchantments, Math.max(enchantments.length * 2, id + 1));
+
+        enchantments[id] = enchantment;
+
+        return id;
+
+    }
+
+    // the id stays reserved for the key
+    void unbind(NamespacedKey namespacedKey) {
+        int id = get(namespacedKey);
+        if (id >= 0)
+            enchantments[id] = null;
+    }
+
+    void unbindAll() {
+        Arrays.fill(enchantments, null);
+    }
+
+    // null if no enchantment is bound to the id
+    Enchantment getEnchantment(int id) {
+        if (id < 0 || id >= enchantments.length)
+            return null;
+        return enchantments[id];
+    }
+
+    // -1 if the key has no id
+    int get(NamespacedKey namespacedKey) {
+        Integer id = idsByKey.get(namespacedKey);
+        return id == null ? -1 : id;
+    }
+
+    // every id is lower than this value
+    int size() {
+        return size;
+    }
+
+    // blocks until all pending saves are written
+    void flush() {
+        configuration.flush();
+    }
+
+}
@@ -0,0 +1,227 @@
+package de.drachir000.library.utils;
+
+import de.drachir000.library.enchantments.Enchantment;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A compact, immutable map of registered enchantments to levels, stored in parallel arrays of enchantments, enchantment ids and primitive levels.
+ * Reading levels doesn't box them, and {@link #asMap()} offers the common {@link Map} API without copying the entries.
+ * <br>
+ * Entries keep the order of the item's enchantment list. The ids are the ones of {@link EnchantmentManager#getId(Enchantment)} at the time the item was read.
+ *
+ * @author Drachir000
+ * @see ItemManager#getEnchantmentLevels(org.bukkit.inventory.ItemStack)
+ * @since 0.0.8
+ */
+public final class EnchantmentLevels {
+
+    /**
+     * Levels without any entries
+     *
+     * @since 0.0.8
+     */
+    public static final EnchantmentLevels EMPTY = new EnchantmentLevels(new Enchantment[0], new int[0], new short[0], 0);
+
+    private final Enchantment[] enchantments;
+    private final int[] ids;
+    private final short[] levels;
+    private final int size;
+
+    private Map<Enchantment, Short> map;
+
+    EnchantmentLevels(Enchantment[] enchantments, int[] ids, short[] levels, int size) {
+        this.enchantments = enchantments;
+        this.ids = ids;
+        this.levels = levels;
+        this.size = size;
+    }
+
+    /**
+     * @return the number of entries
+     * @since 0.0.8
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true, if there are no entries
+     * @since 0.0.8
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index the index of the entry, from 0 (inclusive) to {@link #size()} (exclusive)
+     * @return the enchantment of the entry
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @since 0.0.8
+     */
+    public Enchantment getEnchantment(int index) {
+        checkIndex(index);
+        return enchantments[index];
+    }
+
+    /**
+     * @param index the index of the entry, from 0 (inclusive) to {@link #size()} (exclusive)
+     * @return the id of the enchantment of the entry
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @since 0.0.8
+     */
+    public int getId(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    /**
+     * @param index the index of the entry, from 0 (inclusive) to {@link #size()} (exclusive)
+     * @return the level of the entry
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @since 0.0.8
+     */
+    public short getLevel(int index) {
+        checkIndex(index);
+        return levels[index];
+    }
+
+    /**
+     * Enchantments are compared with equals, so an enchantment with the same key finds the entry, like in any other {@link Map}.
+     *
+     * @param enchantment the enchantment to search for
+     * @return the index of the entry of the enchantment, -1 if there is none
+     * @since 0.0.8
+     */
+    public int indexOf(Enchantment enchantment) {
+        return indexOfKey(enchantment);
+    }
+
+    private int indexOfKey(Object key) {
+        if (key == null)
+            return -1;
+        for (int i = 0; i < size; i++) {
+            if (enchantments[i] == key || enchantments[i].equals(key))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @param enchantment the enchantment to check
+     * @return true, if there is an entry for the enchantment
+     * @since 0.0.8
+     */
+    public boolean contains(Enchantment enchantment) {
+        return indexOf(enchantment) >= 0;
+    }
+
+    /**
+     * @param enchantment the enchantment to check for
+     * @return the level of the enchantment (when there is no entry for the enchantment 0)
+     * @since 0.0.8
+     */
+    public short level(Enchantment enchantment) {
+        int index = indexOf(enchantment);
+        return index < 0 ? 0 : levels[index];
+    }
+
+    /**
+     * Can be passed to {@link EnchantmentManager#conflictsWithAny(Enchantment, BitSet)}.
+     *
+     * @return a new BitSet containing the ids of all enchantments
+     * @since 0.0.8
+     */
+    public BitSet toIdSet() {
+        BitSet result = new BitSet();
+        for (int i = 0; i < size; i++)
+            result.set(ids[i]);
+        return result;
+    }
+
+    /**
+     * The returned map is a read-only view of the entries and doesn't copy them. Levels are only boxed when they are read through the map.
+     *
+     * @return an unmodifiable map view of the entries
+     * @since 0.0.8
+     */
+    public Map<Enchantment, Short> asMap() {
+        Map<Enchantment, Short> result = map;
+        if (result == null) {
+            result = new MapView();
+            map = result;
+        }
+        return result;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    private final class MapView extends AbstractMap<Enchantment, Short> {
+
+        private final Set<Entry<Enchantment, Short>> entrySet = new AbstractSet<Entry<Enchantment, Short>>() {
+
+            @Override
+            public Iterator<Entry<Enchantment, Short>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+        };
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOfKey(key) >= 0;
+        }
+
+        @Override
+        public Short get(Object key) {
+            int index = indexOfKey(key);
+            return index < 0 ? null : levels[index];
+        }
+
+        @Override
+        public Set<Entry<Enchantment, Short>> entrySet() {
+            return entrySet;
+        }
+
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<Enchantment, Short>> {
+
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public Map.Entry<Enchantment, Short> next() {
+            if (index >= size)
+                throw new NoSuchElementException();
+            Map.Entry<Enchantment, Short> entry = new AbstractMap.SimpleImmutableEntry<>(enchantments[index], levels[index]);
+            index++;
+            return entry;
+        }
+
+    }
+
+}
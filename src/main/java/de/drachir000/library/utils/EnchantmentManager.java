@@ -1,18 +1,35 @@
 package de.drachir000.library.utils;
 
-import com.google.gson.internal.LinkedTreeMap;
 import de.drachir000.library.ELib;
+import de.drachir000.library.configuration.EnchantmentDescriptor;
+import de.drachir000.library.configuration.EnchantmentDescriptorReader;
+import de.drachir000.library.configuration.EnchantmentSnapshot;
 import de.drachir000.library.configuration.JsonConfig;
 import de.drachir000.library.enchantments.Enchantment;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
-import org.bukkit.enchantments.EnchantmentTarget;
+import org.bukkit.inventory.ItemStack;
 
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 /**
@@ -26,151 +43,109 @@ public class EnchantmentManager {
     ELib eLib;
 
     private final List<Enchantment> registeredEnchantments;
+    private final Map<NamespacedKey, Enchantment> enchantmentsByKey;
+    private final Map<String, Enchantment> enchantmentsByKeyString;
+    private int registryVersion;
+    private int modificationCount;
 
-    public EnchantmentManager(ELib eLib) {
-        this.eLib = eLib;
-        this.registeredEnchantments = new ArrayList<>();
-    }
-
-    public void registerVanillaEnchantments() throws FileNotFoundException {
+    private final EnchantmentIds ids;
 
-        JsonConfig vanillaEnchantmentsConfiguration = new JsonConfig(eLib, "vanilla-enchantments.json");
+    private ConflictMatrix conflictMatrix;
+    private boolean conflictMatrixDirty;
 
-        vanillaEnchantmentsConfiguration.reload();
+    private final Map<Material, List<Enchantment>> enchantmentsByMaterial;
 
-        for (org.bukkit.enchantments.Enchantment vanillaEnchantment : Enchantment.values()) {
+    private final Map<NamespacedKey, org.bukkit.enchantments.Enchantment> serverEnchantments;
+    private MethodHandle acceptingNewSetter, byKeyGetter, byNameGetter;
 
-            String namespace = vanillaEnchantment.getKey().getNamespace();
-            if (!namespace.equalsIgnoreCase("minecraft"))
-                continue;
-
-            String key = vanillaEnchantment.getKey().getKey();
+    public EnchantmentManager(ELib eLib) {
+        this.eLib = eLib;
+        this.registeredEnchantments = new ArrayList<>();
+        this.enchantmentsByKey = new HashMap<>();
+        this.enchantmentsByKeyString = new HashMap<>();
+        this.ids = new EnchantmentIds(new JsonConfig(eLib, "enchantment-ids.json", eLib.getSaveExecutor()), eLib.getLogger());
+        this.conflictMatrixDirty = true;
+        this.enchantmentsByMaterial = new EnumMap<>(Material.class);
+        this.serverEnchantments = new HashMap<>();
+        this.modificationCount = Enchantment.getModificationCount();
+        for (org.bukkit.enchantments.Enchantment serverEnchantment : org.bukkit.enchantments.Enchantment.values())
+            serverEnchantments.put(serverEnchantment.getKey(), serverEnchantment);
+        ids.load();
+    }
 
-            Object obj = vanillaEnchantmentsConfiguration.get(key);
+    /**
+     * Registers all vanilla enchantments of the server to ELib, with the properties from vanilla-enchantments.json
+     *
+     * @throws IOException if vanilla-enchantments.json couldn't be read
+     * @since 0.0.5
+     */
+    public void registerVanillaEnchantments() throws IOException {
 
-            LinkedTreeMap<String, Object> entry;
+        Path path = eLib.getDataFolder().toPath().resolve("vanilla-enchantments.json");
 
-            try {
-                entry = (LinkedTreeMap<String, Object>) obj;
-            } catch (Exception ignored) {
-                eLib.getLogger().log(Level.WARNING, "Couldn't register from vanilla-enchantments configuration: \"" + key + "\"! Invalid entry");
-                continue;
-            }
+        if (Files.notExists(path))
+            eLib.saveResource("vanilla-enchantments.json", false);
 
-            if (entry == null) {
-                eLib.getLogger().log(Level.WARNING, "Couldn't register from vanilla-enchantments configuration: \"" + key + "\"! Invalid entry");
-                continue;
-            }
+        // taken before the file is read, so a change while reading outdates the snapshot
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long size = attributes.size(), mTime = attributes.lastModifiedTime().toMillis();
 
-            Enchantment enchantment = loadVanillaEnchantment(key, entry);
+        Path snapshotPath = eLib.getDataFolder().toPath().resolve("vanilla-enchantments.snapshot");
+        String snapshotVersion = eLib.getServer().getVersion() + "/" + eLib.getDescription().getVersion();
+        EnchantmentDescriptorReader descriptorReader = new EnchantmentDescriptorReader(eLib.getLogger(), "vanilla-enchantments.json");
 
-            if (enchantment != null)
-                registerEnchantment(enchantment);
+        long startTime = System.nanoTime();
 
-        }
+        EnchantmentSnapshot snapshot = EnchantmentSnapshot.read(snapshotPath, size, mTime, snapshotVersion);
+        Map<NamespacedKey, EnchantmentDescriptor> descriptors;
 
-    }
+        if (snapshot != null) {
 
-    private Enchantment loadVanillaEnchantment(String key, LinkedTreeMap<String, Object> entry) {
+            descriptors = snapshot.getDescriptors();
+            descriptorReader.report(snapshot.getProblems());
 
-        NamespacedKey namespacedKey = NamespacedKey.fromString(key, null);
+        } else {
 
-        if (namespacedKey == null) {
-            eLib.getLogger().log(Level.WARNING, "Couldn't register from vanilla-enchantments configuration: \"" + key + "\"! Invalid key");
-            return null;
-        }
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                descriptors = descriptorReader.read(reader);
+            }
 
-        String name, defaultPrefix = "§r§7", maxLevelPrefix = "§r§6"; // TODO default values
-        short minLevel = 1, maxLevel = 1;
-        EnchantmentTarget enchantmentTarget = EnchantmentTarget.ALL;
-        boolean curse = false;
-        List<NamespacedKey> conflicts = new ArrayList<>();
-        List<Material> enchantable = new ArrayList<>();
+            try {
+                EnchantmentSnapshot.write(snapshotPath, size, mTime, snapshotVersion, descriptors.values(), descriptorReader.getProblems());
+            } catch (IOException e) {
+                eLib.getLogger().log(Level.WARNING, "Couldn't write vanilla-enchantments.snapshot!", e);
+            }
 
-        Object o = entry.get("name");
-        if (o != null) {
-            name = o.toString();
-        } else {
-            name = key.replace('_', ' ');
         }
 
-        o = entry.get("default-prefix");
-        if (o != null) {
-            defaultPrefix = o.toString();
-        }
+        long loadTime = System.nanoTime() - startTime;
 
-        o = entry.get("maxLevel-prefix");
-        if (o != null) {
-            maxLevelPrefix = o.toString();
-        }
+        List<Enchantment> vanillaEnchantments = new ArrayList<>();
 
-        o = entry.get("min-level");
-        if (o != null) {
-            double d = (double) o;
-            if (d < 1)
-                d = 1;
-            if (d > Short.MAX_VALUE)
-                d = Short.MAX_VALUE;
-            minLevel = (short) d;
-        }
+        for (org.bukkit.enchantments.Enchantment vanillaEnchantment : org.bukkit.enchantments.Enchantment.values()) {
 
-        o = entry.get("max-level");
-        if (o != null) {
-            double d = (double) o;
-            if (d < 1)
-                d = 1;
-            if (d > Short.MAX_VALUE)
-                d = Short.MAX_VALUE;
-            maxLevel = (short) d;
-        }
+            if (!vanillaEnchantment.getKey().getNamespace().equals(NamespacedKey.MINECRAFT))
+                continue;
 
-        o = entry.get("enchantment-target");
-        if (o != null) {
-            String s = o.toString();
-            enchantmentTarget = EnchantmentTarget.valueOf(s);
-        } else {
-            eLib.getLogger().log(Level.WARNING, "Couldn't find 'enchantment-target' for \"" + key + "\" in vanilla-enchantments.json! Continuing with ALL");
-        }
+            EnchantmentDescriptor descriptor = descriptors.get(vanillaEnchantment.getKey());
 
-        o = entry.get("curse");
-        if (o != null) {
-            try {
-                curse = (boolean) o;
-            } catch (Exception ignored) {
-                eLib.getLogger().log(Level.WARNING, "Invalid 'curse' for \"" + key + "\" in vanilla-enchantments.json! Continuing with false");
+            if (descriptor == null) {
+                eLib.getLogger().log(Level.WARNING, "Couldn't register from vanilla-enchantments configuration: \"" + vanillaEnchantment.getKey().getKey() + "\"! Missing entry");
+                continue;
             }
-        } else {
-            eLib.getLogger().log(Level.WARNING, "Couldn't find 'curse' for \"" + key + "\" in vanilla-enchantments.json! Continuing with false");
-        }
 
-        o = entry.get("conflicts");
-        if (o != null) {
-            if (o instanceof ArrayList) {
-                try {
-                    conflicts = (ArrayList<NamespacedKey>) o;
-                } catch (Exception e) {
-                    eLib.getLogger().log(Level.WARNING, "Invalid 'conflicts' for \"" + key + "\" in vanilla-enchantments.json! Continuing with none");
-                }
-            }
-        } else {
-            eLib.getLogger().log(Level.WARNING, "Couldn't find 'conflicts' for \"" + key + "\" in vanilla-enchantments.json! Continuing with none");
-        }
+            vanillaEnchantments.add(descriptor.createEnchantment());
 
-        o = entry.get("enchantable");
-        if (o != null) {
-            if (o instanceof ArrayList) {
-                try {
-                    enchantable = (ArrayList<Material>) o;
-                } catch (Exception e) {
-                    eLib.getLogger().log(Level.WARNING, "Invalid 'enchantable' for \"" + key + "\" in vanilla-enchantments.json! Continuing with none");
-                }
-            }
-        } else {
-            eLib.getLogger().log(Level.WARNING, "Couldn't find 'enchantable' for \"" + key + "\" in vanilla-enchantments.json! Continuing with none");
         }
 
-        return new Enchantment(name, defaultPrefix, maxLevelPrefix, namespacedKey, minLevel, maxLevel, enchantmentTarget, curse, conflicts, enchantable) {
-        };
+        for (Enchantment enchantment : vanillaEnchantments)
+            registerEnchantment(enchantment);
+
+        // delete vanilla-enchantments.snapshot to compare the snapshot with parsing the JSON
+        eLib.getLogger().log(Level.INFO, "Registered " + vanillaEnchantments.size() + " vanilla enchantments in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " ms ("
+                + (snapshot != null ? "loading the snapshot" : "parsing vanilla-enchantments.json") + " took "
+                + TimeUnit.NANOSECONDS.toMillis(loadTime) + " ms)");
 
     }
 
@@ -184,36 +159,70 @@ public class EnchantmentManager {
      */
     public boolean registerToServer(Enchantment enchantment, boolean registerToLibrary) {
 
-        if (registerToLibrary)
-            registerEnchantment(enchantment);
+        Boolean registered = registerAllToServer(Collections.singletonList(enchantment), registerToLibrary).get(enchantment);
 
-        for (org.bukkit.enchantments.Enchantment registeredEnchantment : org.bukkit.enchantments.Enchantment.values()) {
-            if (registeredEnchantment.equals(enchantment)) {
-                return true;
-            }
-        }
+        return registered != null && registered;
 
-        try {
+    }
 
-            Field fieldAcceptingNew = org.bukkit.enchantments.Enchantment.class.getDeclaredField("acceptingNew");
+    /**
+     * Register multiple enchantments to the Server at once. The registration window of the server is opened only once for all of them.
+     *
+     * @param enchantments      the enchantments to register
+     * @param registerToLibrary whether the enchantments should get registered to ELib too, if they aren't already
+     * @return a map containing every given enchantment with true, if it is registered, false otherwise
+     * @since 0.0.8
+     */
+    public Map<Enchantment, Boolean> registerAllToServer(Collection<? extends Enchantment> enchantments, boolean registerToLibrary) {
 
-            fieldAcceptingNew.setAccessible(true);
+        Map<Enchantment, Boolean> result = new LinkedHashMap<>();
+        List<Enchantment> toRegister = new ArrayList<>();
 
-            fieldAcceptingNew.set(null, true);
+        for (Enchantment enchantment : enchantments) {
 
-            fieldAcceptingNew.setAccessible(false);
+            if (enchantment == null)
+                continue;
+
+            if (registerToLibrary)
+                registerEnchantment(enchantment);
 
-            org.bukkit.enchantments.Enchantment.registerEnchantment(enchantment);
+            if (isRegisteredToServer(enchantment.getKey()))
+                result.put(enchantment, true);
+            else
+                toRegister.add(enchantment);
 
-            org.bukkit.enchantments.Enchantment.stopAcceptingRegistrations();
+        }
 
-            return true;
+        if (toRegister.isEmpty())
+            return result;
 
-        } catch (NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException |
-                 IllegalStateException ignored) {
-            return false;
+        try {
+            getAcceptingNewSetter().invokeExact(true);
+        } catch (Throwable throwable) {
+            eLib.getLogger().log(Level.WARNING, "Couldn't open the enchantment registration of the server!", throwable);
+            for (Enchantment enchantment : toRegister)
+                result.put(enchantment, false);
+            return result;
         }
 
+        try {
+
+            for (Enchantment enchantment : toRegister) {
+                try {
+                    org.bukkit.enchantments.Enchantment.registerEnchantment(enchantment);
+                    serverEnchantments.put(enchantment.getKey(), enchantment);
+                    result.put(enchantment, true);
+                } catch (IllegalArgumentException | IllegalStateException ignored) {
+                    result.put(enchantment, false);
+                }
+            }
+
+        } finally {
+            org.bukkit.enchantments.Enchantment.stopAcceptingRegistrations();
+        }
+
+        return result;
+
     }
 
     /**
@@ -256,47 +265,99 @@ public class EnchantmentManager {
      */
     public boolean unregisterFromServer(Enchantment enchantment, boolean unregisterFromLibrary) {
 
-        boolean registered = false;
-        for (org.bukkit.enchantments.Enchantment registeredEnchantment : org.bukkit.enchantments.Enchantment.values()) {
-            if (registeredEnchantment.equals(enchantment)) {
-                registered = true;
-                break;
+        Boolean unregistered = unregisterAllFromServer(Collections.singletonList(enchantment), unregisterFromLibrary).get(enchantment);
+
+        return unregistered != null && unregistered;
+
+    }
+
+    /**
+     * Unregister multiple enchantments from the Server at once
+     *
+     * @param enchantments          the enchantments to unregister
+     * @param unregisterFromLibrary whether the enchantments should get unregistered from ELib too, if they are registered
+     * @return a map containing every given enchantment with true, if it is now unregistered, false otherwise
+     * @since 0.0.8
+     */
+    public Map<Enchantment, Boolean> unregisterAllFromServer(Collection<? extends Enchantment> enchantments, boolean unregisterFromLibrary) {
+
+        Map<Enchantment, Boolean> result = new LinkedHashMap<>();
+        Map<NamespacedKey, org.bukkit.enchantments.Enchantment> byKey = null;
+        Map<String, org.bukkit.enchantments.Enchantment> byName = null;
+
+        for (Enchantment enchantment : enchantments) {
+
+            if (enchantment == null)
+                continue;
+
+            if (isRegisteredToServer(enchantment.getKey())) {
+
+                if (byKey == null) {
+                    try {
+                        byKey = getServerEnchantmentsByKey();
+                        byName = getServerEnchantmentsByName();
+                    } catch (Throwable throwable) {
+                        eLib.getLogger().log(Level.WARNING, "Couldn't access the enchantment registry of the server!", throwable);
+                        byKey = null;
+                        result.put(enchantment, false);
+                        continue;
+                    }
+                }
+
+                byKey.remove(enchantment.getKey());
+                byName.remove(enchantment.getName());
+
+                serverEnchantments.remove(enchantment.getKey());
+
             }
-        }
-        if (!registered) {
 
             if (unregisterFromLibrary)
                 unregisterEnchantment(enchantment);
 
-            return true;
+            result.put(enchantment, true);
+
         }
 
-        try {
+        return result;
 
-            Field keyField = org.bukkit.enchantments.Enchantment.class.getDeclaredField("byKey");
+    }
 
-            keyField.setAccessible(true);
-            @SuppressWarnings("unchecked")
-            HashMap<NamespacedKey, org.bukkit.enchantments.Enchantment> byKey = (HashMap<NamespacedKey, org.bukkit.enchantments.Enchantment>) keyField.get(null);
+    private MethodHandle getAcceptingNewSetter() throws ReflectiveOperationException {
 
-            byKey.remove(enchantment.getKey());
-            Field nameField = org.bukkit.enchantments.Enchantment.class.getDeclaredField("byName");
+        if (acceptingNewSetter == null) {
+            Field field = org.bukkit.enchantments.Enchantment.class.getDeclaredField("acceptingNew");
+            field.setAccessible(true);
+            acceptingNewSetter = MethodHandles.lookup().unreflectSetter(field);
+        }
 
-            nameField.setAccessible(true);
-            @SuppressWarnings("unchecked")
-            HashMap<String, org.bukkit.enchantments.Enchantment> byName = (HashMap<String, org.bukkit.enchantments.Enchantment>) nameField.get(null);
+        return acceptingNewSetter;
 
-            byName.remove(enchantment.getName());
+    }
 
-            if (unregisterFromLibrary)
-                unregisterEnchantment(enchantment);
+    @SuppressWarnings("unchecked")
+    private Map<NamespacedKey, org.bukkit.enchantments.Enchantment> getServerEnchantmentsByKey() throws Throwable {
 
-            return true;
+        if (byKeyGetter == null) {
+            Field field = org.bukkit.enchantments.Enchantment.class.getDeclaredField("byKey");
+            field.setAccessible(true);
+            byKeyGetter = MethodHandles.lookup().unreflectGetter(field);
+        }
 
-        } catch (Exception ignored) {
-            return false;
+        return (Map<NamespacedKey, org.bukkit.enchantments.Enchantment>) byKeyGetter.invoke();
+
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, org.bukkit.enchantments.Enchantment> getServerEnchantmentsByName() throws Throwable {
+
+        if (byNameGetter == null) {
+            Field field = org.bukkit.enchantments.Enchantment.class.getDeclaredField("byName");
+            field.setAccessible(true);
+            byNameGetter = MethodHandles.lookup().unreflectGetter(field);
         }
 
+        return (Map<String, org.bukkit.enchantments.Enchantment>) byNameGetter.invoke();
+
     }
 
     /**
@@ -332,11 +393,50 @@ public class EnchantmentManager {
     }
 
     /**
+     * Gets the enchantment instance the server knows for a NamespacedKey.
+     * This includes vanilla enchantments and every enchantment registered to the server.
+     *
+     * @param namespacedKey the namespacedKey of the enchantment
+     * @return the enchantment registered to the server under this key, null if there is none
+     * @since 0.0.8
+     */
+    public org.bukkit.enchantments.Enchantment getServerEnchantment(NamespacedKey namespacedKey) {
+
+        if (namespacedKey == null)
+            return null;
+
+        org.bukkit.enchantments.Enchantment serverEnchantment = serverEnchantments.get(namespacedKey);
+
+        if (serverEnchantment == null) {
+            // registered to the server by someone else, remember it for the next lookup
+            serverEnchantment = org.bukkit.enchantments.Enchantment.getByKey(namespacedKey);
+            if (serverEnchantment != null)
+                serverEnchantments.put(namespacedKey, serverEnchantment);
+        }
+
+        return serverEnchantment;
+
+    }
+
+    /**
+     * @param namespacedKey the namespacedKey of the enchantment to test
+     * @return true, if an enchantment with this key is registered to the server
+     * @since 0.0.8
+     */
+    public boolean isRegisteredToServer(NamespacedKey namespacedKey) {
+        return getServerEnchantment(namespacedKey) != null;
+    }
+
+    /**
+     * Note: since 0.0.8 the returned list is an unmodifiable view in registration order (before, it was the list backing the registry and could be modified directly).
+     * Use {@link #registerEnchantment(Enchantment)} and {@link #unregisterEnchantment(Enchantment)} to modify it, modifying the list throws an {@link UnsupportedOperationException}.
+     *
      * @return A List of all currently registered enchantments
      * @since 0.0.2
      */
     public List<Enchantment> getRegisteredEnchantments() {
-        return registeredEnchantments;
+        validateIndexes();
+        return Collections.unmodifiableList(registeredEnchantments);
     }
 
     /**
@@ -347,19 +447,81 @@ public class EnchantmentManager {
      * @since 0.0.2
      */
     public boolean registerEnchantment(Enchantment enchantment) {
-        if (registeredEnchantments.contains(enchantment))
+        if (enchantment == null)
+            return false;
+        validateIndexes();
+        if (enchantmentsByKey.putIfAbsent(enchantment.getNamespacedKey(), enchantment) != null)
             return false;
         registeredEnchantments.add(enchantment);
+        registryVersion++;
+        indexKeyStrings(enchantment);
+        ids.bind(enchantment);
+        conflictMatrixDirty = true;
+        indexMaterials(enchantment);
         return true;
     }
 
+    // re-indexes the registered enchantments, if the namespacedKey, the conflicts or the enchantable materials of any enchantment changed since the last call
+    private void validateIndexes() {
+
+        int modificationCount = Enchantment.getModificationCount();
+
+        if (modificationCount == this.modificationCount)
+            return;
+
+        this.modificationCount = modificationCount;
+
+        enchantmentsByKey.clear();
+        enchantmentsByKeyString.clear();
+        ids.unbindAll();
+        enchantmentsByMaterial.clear();
+
+        for (Iterator<Enchantment> iterator = registeredEnchantments.iterator(); iterator.hasNext(); ) {
+
+            Enchantment enchantment = iterator.next();
+
+            if (enchantmentsByKey.putIfAbsent(enchantment.getNamespacedKey(), enchantment) != null) {
+                iterator.remove();
+                eLib.getLogger().log(Level.WARNING, "Unregistered an enchantment, whose key was changed to the key of another registered enchantment: \"" + enchantment.getNamespacedKey() + "\"");
+                continue;
+            }
+
+            indexKeyStrings(enchantment);
+            ids.bind(enchantment); // a changed key gets a new id, the id of the old key stays reserved
+            indexMaterials(enchantment);
+
+        }
+
+        registryVersion++;
+        conflictMatrixDirty = true;
+
+    }
+
+    private void indexKeyStrings(Enchantment enchantment) {
+        NamespacedKey namespacedKey = enchantment.getNamespacedKey();
+        enchantmentsByKeyString.put(namespacedKey.getNamespace() + ":" + namespacedKey.getKey(), enchantment);
+        // un-namespaced keys (e.g. "sharpness") resolve to the minecraft namespace, just like NamespacedKey.fromString
+        if (namespacedKey.getNamespace().equals(NamespacedKey.MINECRAFT))
+            enchantmentsByKeyString.put(namespacedKey.getKey(), enchantment);
+    }
+
+    private void unindexKeyStrings(Enchantment enchantment) {
+        NamespacedKey namespacedKey = enchantment.getNamespacedKey();
+        enchantmentsByKeyString.remove(namespacedKey.getNamespace() + ":" + namespacedKey.getKey());
+        if (namespacedKey.getNamespace().equals(NamespacedKey.MINECRAFT))
+            enchantmentsByKeyString.remove(namespacedKey.getKey());
+    }
+
     /**
      * @param enchantment The enchantment to test
      * @return true, if the enchantment already is registered
      * @since 0.0.2
      */
     public boolean isRegistered(Enchantment enchantment) {
-        return registeredEnchantments.contains(enchantment);
+        if (enchantment == null)
+            return false;
+        validateIndexes();
+        return enchantmentsByKey.containsKey(enchantment.getNamespacedKey());
     }
 
     /**
@@ -368,26 +530,24 @@ public class EnchantmentManager {
      * @since 0.0.2
      */
     public boolean isRegistered(NamespacedKey namespacedKey) {
-        for (Enchantment registeredEnchantment : registeredEnchantments) {
-            if (registeredEnchantment.getNamespacedKey().equals(namespacedKey))
-                return true;
-        }
-        return false;
+        if (namespacedKey == null)
+            return false;
+        validateIndexes();
+        return enchantmentsByKey.containsKey(namespacedKey);
     }
 
     /**
+     * Un-namespaced keys (e.g. "sharpness") are resolved in the minecraft namespace.
+     *
      * @param namespacedKey The NamespacedKey of the enchantment to test
      * @return true, if the enchantment already is registered
      * @since 0.0.2
      */
     public boolean isRegistered(String namespacedKey) {
-        for (Enchantment registeredEnchantment : registeredEnchantments) {
-            NamespacedKey registeredNamespacedKey = registeredEnchantment.getNamespacedKey();
-            String registeredNamespacedKeyString = registeredNamespacedKey.getNamespace() + ":" + registeredNamespacedKey.getKey();
-            if (registeredNamespacedKeyString.equals(namespacedKey))
-                return true;
-        }
-        return false;
+        if (namespacedKey == null)
+            return false;
+        validateIndexes();
+        return enchantmentsByKeyString.containsKey(namespacedKey);
     }
 
     /**
@@ -399,7 +559,31 @@ public class EnchantmentManager {
      * @since 0.0.2
      */
     public boolean unregisterEnchantment(Enchantment enchantment) {
-        return registeredEnchantments.remove(enchantment);
+        if (enchantment == null)
+            return false;
+        validateIndexes();
+        Enchantment registeredEnchantment = enchantmentsByKey.remove(enchantment.getNamespacedKey());
+        if (registeredEnchantment == null)
+            return false;
+        registeredEnchantments.remove(registeredEnchantment);
+        registryVersion++;
+        unindexKeyStrings(registeredEnchantment);
+        ids.unbind(registeredEnchantment.getNamespacedKey()); // the id stays reserved for this key
+        conflictMatrixDirty = true;
+        unindexMaterials(registeredEnchantment);
+        return true;
+    }
+
+    /**
+     * The registry version changes every time an enchantment gets registered, unregistered or re-indexed after a change of its key, conflicts or enchantable materials.
+     * It can be used to tell if results derived from the registered enchantments are outdated.
+     *
+     * @return the current registry version
+     * @since 0.0.8
+     */
+    public int getRegistryVersion() {
+        validateIndexes();
+        return registryVersion;
     }
 
     /**
@@ -410,29 +594,251 @@ public class EnchantmentManager {
      * @since 0.0.2
      */
     public Enchantment getByNamespacedKey(NamespacedKey namespacedKey) {
-        for (Enchantment registeredEnchantment : registeredEnchantments) {
-            NamespacedKey registeredNamespacedKey = registeredEnchantment.getNamespacedKey();
-            if (namespacedKey.equals(registeredNamespacedKey))
-                return registeredEnchantment;
-        }
-        return null;
+        if (namespacedKey == null)
+            return null;
+        validateIndexes();
+        return enchantmentsByKey.get(namespacedKey);
     }
 
     /**
      * Gets an enchantment by its namespacedKey.
+     * Un-namespaced keys (e.g. "sharpness") are resolved in the minecraft namespace.
      *
      * @param namespacedKey the namespacedKey of the enchantment to get
      * @return the enchantment with the namespacedKey if registered, null otherwise
      * @since 0.0.2
      */
     public Enchantment getByNamespacedKey(String namespacedKey) {
-        for (Enchantment registeredEnchantment : registeredEnchantments) {
-            NamespacedKey registeredNamespacedKey = registeredEnchantment.getNamespacedKey();
-            String registeredNamespacedKeyString = registeredNamespacedKey.getNamespace() + ":" + registeredNamespacedKey.getKey();
-            if (namespacedKey.equals(registeredNamespacedKeyString))
-                return registeredEnchantment;
+        if (namespacedKey == null)
+            return null;
+        validateIndexes();
+        return enchantmentsByKeyString.get(namespacedKey);
+    }
+
+    /**
+     * Blocks until all pending writes of enchantment-ids.json are done. Called when ELib gets disabled.
+     *
+     * @since 0.0.8
+     */
+    public void flush() {
+        ids.flush();
+    }
+
+    /**
+     * Gets a registered enchantment by its numeric id.
+     * Ids are dense, start at 0 and stay the same for a NamespacedKey across restarts (they are persisted in enchantment-ids.json).
+     *
+     * @param id the id of the enchantment to get
+     * @return the enchantment with the id if registered, null otherwise
+     * @see #getIdSpaceSize()
+     * @since 0.0.8
+     */
+    public Enchantment getById(int id) {
+        validateIndexes();
+        return ids.getEnchantment(id);
+    }
+
+    /**
+     * Gets the numeric id of a registered enchantment.
+     *
+     * @param enchantment the enchantment whose id is to be obtained
+     * @return the id of the enchantment if registered, -1 otherwise
+     * @see #getById(int)
+     * @since 0.0.8
+     */
+    public int getId(Enchantment enchantment) {
+        if (enchantment == null)
+            return -1;
+        validateIndexes();
+        int id = ids.get(enchantment.getNamespacedKey());
+        if (ids.getEnchantment(id) == null)
+            return -1;
+        return id;
+    }
+
+    /**
+     * Every id returned by {@link #getId(Enchantment)} is lower than this value, so it can be used as the length of arrays indexed by enchantment id.
+     * Note: this also counts ids reserved for currently unregistered enchantments and grows when new enchantments are registered.
+     *
+     * @return the size of the enchantment id space
+     * @since 0.0.8
+     */
+    public int getIdSpaceSize() {
+        validateIndexes();
+        return ids.size();
+    }
+
+    /**
+     * Marks the compiled conflict matrix as outdated. It gets recompiled on the next conflict query.
+     * Changes by {@link Enchantment#setConflicts(List)} are detected automatically, call this after modifying the list returned by {@link Enchantment#getConflicts()}.
+     *
+     * @since 0.0.8
+     */
+    public void invalidateConflicts() {
+        conflictMatrixDirty = true;
+    }
+
+    private ConflictMatrix getConflictMatrix() {
+
+        validateIndexes();
+
+        if (!conflictMatrixDirty)
+            return conflictMatrix;
+
+        conflictMatrix = ConflictMatrix.compile(registeredEnchantments, namespacedKey -> getId(getByNamespacedKey(namespacedKey)), ids.size());
+        conflictMatrixDirty = false;
+
+        return conflictMatrix;
+
+    }
+
+    // the ids of all enchantments, that conflict with the enchantment with this id, must not be modified
+    BitSet getConflictRow(int id) {
+        return getConflictMatrix().row(id);
+    }
+
+    /**
+     * Check if two enchantments conflict with each other. A conflict declared by only one of both enchantments counts for both.
+     *
+     * @param enchantment the first enchantment
+     * @param other       the second enchantment
+     * @return true, if the enchantments conflict with each other
+     * @since 0.0.8
+     */
+    public boolean conflicts(Enchantment enchantment, Enchantment other) {
+
+        if (enchantment == null || other == null)
+            return false;
+
+        int id = getId(enchantment), otherId = getId(other);
+
+        if (id < 0 || otherId < 0)
+            return enchantment.getConflicts().contains(other.getNamespacedKey()) || other.getConflicts().contains(enchantment.getNamespacedKey());
+
+        return getConflictMatrix().conflicts(id, otherId);
+
+    }
+
+    /**
+     * Check if an enchantment conflicts with the enchantment behind a NamespacedKey. A conflict declared by only one of both enchantments counts for both.
+     *
+     * @param enchantment   the enchantment
+     * @param namespacedKey the namespacedKey of the other enchantment (if it isn't registered, only the conflicts declared by the first enchantment are checked)
+     * @return true, if the enchantments conflict with each other
+     * @since 0.0.8
+     */
+    public boolean conflicts(Enchantment enchantment, NamespacedKey namespacedKey) {
+
+        if (enchantment == null || namespacedKey == null)
+            return false;
+
+        Enchantment other = getByNamespacedKey(namespacedKey);
+
+        if (other == null)
+            return enchantment.getConflicts().contains(namespacedKey);
+
+        return conflicts(enchantment, other);
+
+    }
+
+    /**
+     * Check if an enchantment conflicts with at least one of the enchantments of an item.
+     *
+     * @param enchantment  the enchantment to check
+     * @param enchantments the enchantments of the item (e.g. from {@link ItemManager#getEnchantments(org.bukkit.inventory.ItemStack)})
+     * @return true, if the enchantment conflicts with at least one of the given enchantments
+     * @since 0.0.8
+     */
+    public boolean conflictsWithAny(Enchantment enchantment, Map<Enchantment, Short> enchantments) {
+
+        if (enchantment == null || enchantments == null)
+            return false;
+
+        int id = getId(enchantment);
+
+        if (id < 0) {
+            for (Enchantment other : enchantments.keySet()) {
+                if (conflicts(enchantment, other))
+                    return true;
+            }
+            return false;
         }
-        return null;
+
+        BitSet conflictRow = getConflictMatrix().row(id);
+
+        for (Enchantment other : enchantments.keySet()) {
+            int otherId = getId(other);
+            if (otherId >= 0 ? conflictRow.get(otherId) : conflicts(enchantment, other))
+                return true;
+        }
+
+        return false;
+
+    }
+
+    /**
+     * Check if an enchantment conflicts with at least one of the enchantments in a set of enchantment ids.
+     *
+     * @param enchantment    the enchantment to check
+     * @param enchantmentIds the ids of the other enchantments (see {@link #getId(Enchantment)})
+     * @return true, if the enchantment conflicts with at least one of the given enchantments
+     * @since 0.0.8
+     */
+    public boolean conflictsWithAny(Enchantment enchantment, BitSet enchantmentIds) {
+
+        if (enchantment == null || enchantmentIds == null)
+            return false;
+
+        int id = getId(enchantment);
+
+        if (id < 0) {
+            for (int otherId = enchantmentIds.nextSetBit(0); otherId >= 0; otherId = enchantmentIds.nextSetBit(otherId + 1)) {
+                if (conflicts(enchantment, getById(otherId)))
+                    return true;
+            }
+            return false;
+        }
+
+        return getConflictMatrix().row(id).intersects(enchantmentIds);
+
+    }
+
+    private void indexMaterials(Enchantment enchantment) {
+        for (Material material : enchantment.getEnchantableMaterials())
+            enchantmentsByMaterial.computeIfAbsent(material, m -> new ArrayList<>()).add(enchantment);
+    }
+
+    private void unindexMaterials(Enchantment enchantment) {
+        enchantmentsByMaterial.values().removeIf(enchantments -> enchantments.remove(enchantment) && enchantments.isEmpty());
+    }
+
+    /**
+     * Gets all registered enchantments, that may be applied to items of the given material.
+     *
+     * @param material the material
+     * @return an unmodifiable list of all registered enchantments applicable to the material
+     * @since 0.0.8
+     */
+    public List<Enchantment> getApplicableEnchantments(Material material) {
+        validateIndexes();
+        List<Enchantment> enchantments = material == null ? null : enchantmentsByMaterial.get(material);
+        if (enchantments == null)
+            return Collections.emptyList();
+        return Collections.unmodifiableList(enchantments);
+    }
+
+    /**
+     * Gets all registered enchantments, that may be applied to the given item.
+     * This does not check if they conflict with any enchantments already applied to the item.
+     *
+     * @param item the item
+     * @return an unmodifiable list of all registered enchantments applicable to the item
+     * @since 0.0.8
+     */
+    public List<Enchantment> getApplicableEnchantments(ItemStack item) {
+        if (item == null)
+            return Collections.emptyList();
+        return getApplicableEnchantments(item.getType());
     }
 
 }
@@ -0,0 +1,120 @@
+package de.drachir000.library.utils;
+
+import de.drachir000.library.enchantments.Enchantment;
+
+/**
+ * A condition on the registered enchantments of an item. Predicates can be combined and are evaluated by an {@link InventoryQuery}.
+ * <pre>{@code
+ * EnchantmentPredicate predicate = EnchantmentPredicate.atLeast(a, 3).and(EnchantmentPredicate.has(b).negate());
+ * }</pre>
+ *
+ * @author Drachir000
+ * @see ItemManager#query(EnchantmentPredicate)
+ * @since 0.0.8
+ */
+@FunctionalInterface
+public interface EnchantmentPredicate {
+
+    /**
+     * @param levels the registered enchantments of an item with the corresponding levels
+     * @return true, if the item matches
+     * @since 0.0.8
+     */
+    boolean test(EnchantmentLevels levels);
+
+    /**
+     * @param other the other predicate (evaluated only if this one matches)
+     * @return a predicate matching items, that match this and the other predicate
+     * @since 0.0.8
+     */
+    default EnchantmentPredicate and(EnchantmentPredicate other) {
+        return levels -> test(levels) && other.test(levels);
+    }
+
+    /**
+     * @param other the other predicate (evaluated only if this one doesn't match)
+     * @return a predicate matching items, that match this or the other predicate
+     * @since 0.0.8
+     */
+    default EnchantmentPredicate or(EnchantmentPredicate other) {
+        return levels -> test(levels) || other.test(levels);
+    }
+
+    /**
+     * @return a predicate matching items, that don't match this predicate
+     * @since 0.0.8
+     */
+    default EnchantmentPredicate negate() {
+        return levels -> !test(levels);
+    }
+
+    /**
+     * @param enchantment the enchantment
+     * @return a predicate matching items enchanted with the enchantment
+     * @since 0.0.8
+     */
+    static EnchantmentPredicate has(Enchantment enchantment) {
+        return levels -> levels.contains(enchantment);
+    }
+
+    /**
+     * @param enchantment the enchantment
+     * @param level       the minimum level
+     * @return a predicate matching items enchanted with the enchantment at the given level or above
+     * @since 0.0.8
+     */
+    static EnchantmentPredicate atLeast(Enchantment enchantment, int level) {
+        int minimum = Math.max(level, 1);
+        return levels -> levels.level(enchantment) >= minimum;
+    }
+
+    /**
+     * @return a predicate matching items with at least one registered enchantment
+     * @since 0.0.8
+     */
+    static EnchantmentPredicate any() {
+        return levels -> !levels.isEmpty();
+    }
+
+    /**
+     * @param predicates the predicates
+     * @return a predicate matching items, that match all of the predicates (stops at the first one, that doesn't match)
+     * @since 0.0.8
+     */
+    static EnchantmentPredicate allOf(EnchantmentPredicate... predicates) {
+        EnchantmentPredicate[] copy = predicates.clone();
+        return levels -> {
+            for (EnchantmentPredicate predicate : copy) {
+                if (!predicate.test(levels))
+                    return false;
+            }
+            return true;
+        };
+    }
+
+    /**
+     * @param predicates the predicates
+     * @return a predicate matching items, that match at least one of the predicates (stops at the first one, that matches)
+     * @since 0.0.8
+     */
+    static EnchantmentPredicate anyOf(EnchantmentPredicate... predicates) {
+        EnchantmentPredicate[] copy = predicates.clone();
+        return levels -> {
+            for (EnchantmentPredicate predicate : copy) {
+                if (predicate.test(levels))
+                    return true;
+            }
+            return false;
+        };
+    }
+
+    /**
+     * @param predicate the predicate
+     * @return a predicate matching items, that don't match the predicate
+     * @since 0.0.8
+     */
+    static EnchantmentPredicate not(EnchantmentPredicate predicate) {
+        return predicate.negate();
+    }
+
+}
@@ -0,0 +1,133 @@
+package de.drachir000.library.utils;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+
+/**
+ * Finds the slots of an inventory, whose items match an {@link EnchantmentPredicate}.
+ * <br>
+ * Every query reads the inventory slot by slot in a single pass and parses each item at most once.
+ * Empty slots never match, neither does anything of a null inventory. Items without meta (and therefore without enchantments) are decided without parsing them.
+ * The items are neither copied nor changed.
+ *
+ * @author Drachir000
+ * @see ItemManager#query(EnchantmentPredicate)
+ * @since 0.0.8
+ */
+public final class InventoryQuery {
+
+    private static final int[] NO_SLOTS = new int[0];
+
+    private final ItemManager itemManager;
+    private final EnchantmentPredicate predicate;
+    private final boolean matchesWithoutEnchantments;
+
+    InventoryQuery(ItemManager itemManager, EnchantmentPredicate predicate) {
+        this.itemManager = itemManager;
+        this.predicate = predicate;
+        this.matchesWithoutEnchantments = predicate.test(EnchantmentLevels.EMPTY);
+    }
+
+    /**
+     * @param item the item to test
+     * @return true, if the item isn't empty and matches the predicate
+     * @since 0.0.8
+     */
+    public boolean matches(ItemStack item) {
+
+        if (item == null || item.getType().isAir())
+            return false;
+
+        if (!item.hasItemMeta())
+            return matchesWithoutEnchantments;
+
+        return predicate.test(itemManager.getEnchantmentLevels(item));
+
+    }
+
+    /**
+     * @param inventory the inventory to search
+     * @return the number of matching slots
+     * @since 0.0.8
+     */
+    public int count(Inventory inventory) {
+
+        if (inventory == null)
+            return 0;
+
+        int count = 0;
+
+        for (int slot = 0; slot < inventory.getSize(); slot++) {
+            if (matches(inventory.getItem(slot)))
+                count++;
+        }
+
+        return count;
+
+    }
+
+    /**
+     * Stops at the first matching slot.
+     *
+     * @param inventory the inventory to search
+     * @return the index of the first matching slot, -1 if no slot matches
+     * @since 0.0.8
+     */
+    public int first(Inventory inventory) {
+
+        if (inventory == null)
+            return -1;
+
+        for (int slot = 0; slot < inventory.getSize(); slot++) {
+            if (matches(inventory.getItem(slot)))
+                return slot;
+        }
+
+        return -1;
+
+    }
+
+    /**
+     * @param inventory the inventory to search
+     * @return true, if at least one slot matches (stops at the first matching slot)
+     * @since 0.0.8
+     */
+    public boolean any(Inventory inventory) {
+        return first(inventory) >= 0;
+    }
+
+    /**
+     * @param inventory the inventory to search
+     * @return the indices of all matching slots in ascending order
+     * @since 0.0.8
+     */
+    public int[] all(Inventory inventory) {
+
+        if (inventory == null)
+            return NO_SLOTS;
+
+        int[] slots = null;
+        int count = 0;
+
+        for (int slot = 0; slot < inventory.getSize(); slot++) {
+
+            if (!matches(inventory.getItem(slot)))
+                continue;
+
+            if (slots == null)
+                slots = new int[inventory.getSize() - slot];
+
+            slots[count++] = slot;
+
+        }
+
+        if (slots == null)
+            return NO_SLOTS;
+
+        return count == slots.length ? slots : Arrays.copyOf(slots, count);
+
+    }
+
+}
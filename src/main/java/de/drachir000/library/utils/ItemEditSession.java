@@ -0,0 +1,177 @@
+package de.drachir000.library.utils;
+
+import de.drachir000.library.enchantments.Enchantment;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects enchantment changes for one item and applies all of them at once.
+ * No matter how many changes a session contains, {@link #commit()} parses the item once, updates the lore once and writes the item's NBT once.
+ * <pre>{@code
+ * itemManager.edit(item).set(a, 3).remove(b).commit();
+ * }</pre>
+ * Sessions aren't thread safe and are meant to be used on the main thread right away.
+ *
+ * @author Drachir000
+ * @see ItemManager#edit(ItemStack)
+ * @since 0.0.8
+ */
+public final class ItemEditSession {
+
+    private final ItemManager itemManager;
+    private final EnchantmentManager enchantmentManager;
+    private final ItemStack item;
+    private final Map<Enchantment, Short> changes;
+
+    private boolean checkConflicts, updateLore, committed;
+
+    ItemEditSession(ItemManager itemManager, EnchantmentManager enchantmentManager, ItemStack item) {
+        this.itemManager = itemManager;
+        this.enchantmentManager = enchantmentManager;
+        this.item = item;
+        this.changes = new LinkedHashMap<>();
+        this.checkConflicts = true;
+        this.updateLore = true;
+    }
+
+    /**
+     * Sets the level of an enchantment. A level below 1 removes the enchantment instead.
+     * Later changes of the same enchantment replace earlier ones.
+     *
+     * @param enchantment the enchantment to set (has to be registered, otherwise it is ignored)
+     * @param level       the new level of the enchantment (this ignores the maxLevel and minLevel of the enchantment)
+     * @return this session
+     * @since 0.0.8
+     */
+    public ItemEditSession set(Enchantment enchantment, int level) {
+        checkNotCommitted();
+        if (enchantment == null || !enchantmentManager.isRegistered(enchantment))
+            return this;
+        short newLevel;
+        if (level < 1)
+            newLevel = 0;
+        else if (level > Short.MAX_VALUE)
+            newLevel = Short.MAX_VALUE;
+        else
+            newLevel = (short) level;
+        changes.put(enchantment, newLevel);
+        return this;
+    }
+
+    /**
+     * Sets the level of an enchantment. A level below 1 removes the enchantment instead.
+     *
+     * @param namespacedKey the namespacedKey of the enchantment to set (has to be registered, otherwise it is ignored)
+     * @param level         the new level of the enchantment (this ignores the maxLevel and minLevel of the enchantment)
+     * @return this session
+     * @since 0.0.8
+     */
+    public ItemEditSession set(NamespacedKey namespacedKey, int level) {
+        return set(enchantmentManager.getByNamespacedKey(namespacedKey), level);
+    }
+
+    /**
+     * Sets the level of an enchantment. A level below 1 removes the enchantment instead.
+     *
+     * @param namespacedKey the namespacedKey of the enchantment to set (has to be registered, otherwise it is ignored)
+     * @param level         the new level of the enchantment (this ignores the maxLevel and minLevel of the enchantment)
+     * @return this session
+     * @since 0.0.8
+     */
+    public ItemEditSession set(String namespacedKey, int level) {
+        return set(enchantmentManager.getByNamespacedKey(namespacedKey), level);
+    }
+
+    /**
+     * Removes an enchantment
+     *
+     * @param enchantment the enchantment to remove (has to be registered, otherwise it is ignored)
+     * @return this session
+     * @since 0.0.8
+     */
+    public ItemEditSession remove(Enchantment enchantment) {
+        return set(enchantment, 0);
+    }
+
+    /**
+     * Removes an enchantment
+     *
+     * @param namespacedKey the namespacedKey of the enchantment to remove (has to be registered, otherwise it is ignored)
+     * @return this session
+     * @since 0.0.8
+     */
+    public ItemEditSession remove(NamespacedKey namespacedKey) {
+        return set(namespacedKey, 0);
+    }
+
+    /**
+     * Removes an enchantment
+     *
+     * @param namespacedKey the namespacedKey of the enchantment to remove (has to be registered, otherwise it is ignored)
+     * @return this session
+     * @since 0.0.8
+     */
+    public ItemEditSession remove(String namespacedKey) {
+        return set(namespacedKey, 0);
+    }
+
+    /**
+     * By default, {@link #commit()} refuses to add enchantments that conflict with each other or with the remaining enchantments of the item.
+     *
+     * @param checkConflicts whether to check for conflicts on commit
+     * @return this session
+     * @since 0.0.8
+     */
+    public ItemEditSession checkConflicts(boolean checkConflicts) {
+        checkNotCommitted();
+        this.checkConflicts = checkConflicts;
+        return this;
+    }
+
+    /**
+     * By default, {@link #commit()} updates the lore of the item.
+     *
+     * @param updateLore whether to update the item lore on commit
+     * @return this session
+     * @since 0.0.8
+     */
+    public ItemEditSession updateLore(boolean updateLore) {
+        checkNotCommitted();
+        this.updateLore = updateLore;
+        return this;
+    }
+
+    /**
+     * @return the pending changes, a level of 0 means the enchantment gets removed
+     * @since 0.0.8
+     */
+    public Map<Enchantment, Short> getChanges() {
+        return Collections.unmodifiableMap(changes);
+    }
+
+    /**
+     * Applies all changes to the item. A session can only be committed once.
+     * Like {@link ItemManager#setEnchantment(ItemStack, Enchantment, short)}, enchantments that aren't registered to the server are never added, only removed.
+     * If the changes add any of them, none of the changes are applied and the keys are logged (once per key).
+     *
+     * @return false, if nothing was applied because the item is empty, an added enchantment isn't registered to the server
+     * or (if enabled) an added enchantment conflicts with another enchantment of the result
+     * @throws IllegalStateException if the session was already committed
+     * @since 0.0.8
+     */
+    public boolean commit() {
+        checkNotCommitted();
+        committed = true;
+        return itemManager.commit(item, changes, checkConflicts, updateLore);
+    }
+
+    private void checkNotCommitted() {
+        if (committed)
+            throw new IllegalStateException("The session was already committed");
+    }
+
+}
@@ -0,0 +1,127 @@
+package de.drachir000.library.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * A bounded cache of parsed item enchantments. Items are held weakly and compared by identity, so the cache never keeps an item alive.
+ * <br>
+ * A cached result stays valid until the item is changed by the {@link ItemManager} or the registry version of the {@link EnchantmentManager} changes.
+ * Checking the enchantment list of the item on every lookup would need the same NBT copy as parsing it, so changes to an item, that don't go through the
+ * {@link ItemManager} (e.g. {@link ItemStack#addUnsafeEnchantment(org.bukkit.enchantments.Enchantment, int)} or anvils), have to be reported with {@link #invalidate(ItemStack)}.
+ * <br>
+ * Note: Bukkit often returns a new ItemStack instance for the same item (e.g. {@code getItemInMainHand()}),
+ * so the cache only helps callers that keep and reuse the same ItemStack instance.
+ *
+ * @author Drachir000
+ * @see ItemManager#enableCache(long)
+ * @since 0.0.8
+ */
+public final class ItemEnchantmentCache {
+
+    private final IntSupplier registryVersion;
+    private final Cache<ItemStack, Entry> cache;
+    private final AtomicLong hits, misses;
+
+    ItemEnchantmentCache(IntSupplier registryVersion, long maximumSize) {
+        this.registryVersion = registryVersion;
+        this.cache = CacheBuilder.newBuilder()
+                .weakKeys()
+                .maximumSize(maximumSize)
+                .build();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    EnchantmentLevels get(ItemStack item, Function<ItemStack, EnchantmentLevels> parser) {
+
+        int registryVersion = this.registryVersion.getAsInt();
+
+        Entry entry = cache.getIfPresent(item);
+
+        if (entry != null && entry.registryVersion == registryVersion) {
+            hits.incrementAndGet();
+            return entry.levels;
+        }
+
+        misses.incrementAndGet();
+
+        EnchantmentLevels levels = parser.apply(item);
+        cache.put(item, new Entry(registryVersion, levels));
+
+        return levels;
+
+    }
+
+    /**
+     * Removes the cached result of an item. Has to be called after the enchantments of a cached item were changed without the {@link ItemManager}.
+     *
+     * @param item the item
+     * @since 0.0.8
+     */
+    public void invalidate(ItemStack item) {
+        if (item != null)
+            cache.invalidate(item);
+    }
+
+    /**
+     * Removes all cached results
+     *
+     * @since 0.0.8
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return the number of cached results
+     * @since 0.0.8
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * @return the number of lookups, that returned a cached result
+     * @since 0.0.8
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of lookups, that had to parse the item
+     * @since 0.0.8
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return the ratio of lookups, that returned a cached result, 1.0 if there were no lookups yet
+     * @since 0.0.8
+     */
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 1.0 : (double) hitCount / total;
+    }
+
+    private static final class Entry {
+
+        private final int registryVersion;
+        private final EnchantmentLevels levels;
+
+        private Entry(int registryVersion, EnchantmentLevels levels) {
+            this.registryVersion = registryVersion;
+            this.levels = levels;
+        }
+
+    }
+
+}
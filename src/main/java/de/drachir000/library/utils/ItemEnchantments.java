@@ -0,0 +1,95 @@
+package de.drachir000.library.utils;
+
+import de.drachir000.library.enchantments.Enchantment;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable view of all registered enchantments on an item with the corresponding levels.
+ * The item is parsed only once, when the view is created, so multiple queries don't parse the item again.
+ *
+ * @author Drachir000
+ * @see ItemManager#getItemEnchantments(org.bukkit.inventory.ItemStack)
+ * @since 0.0.8
+ */
+public final class ItemEnchantments implements Iterable<Map.Entry<Enchantment, Short>> {
+
+    /**
+     * The view of an item without registered enchantments
+     *
+     * @since 0.0.8
+     */
+    public static final ItemEnchantments EMPTY = new ItemEnchantments(EnchantmentLevels.EMPTY);
+
+    private final EnchantmentLevels levels;
+
+    ItemEnchantments(EnchantmentLevels levels) {
+        this.levels = levels;
+    }
+
+    /**
+     * @param enchantment the enchantment to check
+     * @return true, if the item is enchanted with the enchantment
+     * @since 0.0.8
+     */
+    public boolean has(Enchantment enchantment) {
+        return levels.contains(enchantment);
+    }
+
+    /**
+     * @param enchantment the enchantment to check for
+     * @return the level of the enchantment on the item (when the item isn't enchanted with this enchantment 0)
+     * @since 0.0.8
+     */
+    public short level(Enchantment enchantment) {
+        return levels.level(enchantment);
+    }
+
+    /**
+     * @return the number of registered enchantments on the item
+     * @since 0.0.8
+     */
+    public int size() {
+        return levels.size();
+    }
+
+    /**
+     * @return true, if the item has no registered enchantments
+     * @since 0.0.8
+     */
+    public boolean isEmpty() {
+        return levels.isEmpty();
+    }
+
+    /**
+     * @return an unmodifiable set of all registered enchantments on the item
+     * @since 0.0.8
+     */
+    public Set<Enchantment> enchantments() {
+        return levels.asMap().keySet();
+    }
+
+    /**
+     * @return an unmodifiable map containing all registered enchantments on the item with the corresponding levels
+     * @since 0.0.8
+     */
+    public Map<Enchantment, Short> asMap() {
+        return levels.asMap();
+    }
+
+    /**
+     * @return the primitive levels backing this view
+     * @since 0.0.8
+     */
+    public EnchantmentLevels levels() {
+        return levels;
+    }
+
+    @Override
+    public Iterator<Map.Entry<Enchantment, Short>> iterator() {
+        return levels.asMap().entrySet().iterator();
+    }
+
+}
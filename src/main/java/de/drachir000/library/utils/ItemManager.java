@@ -6,11 +6,19 @@ import de.tr7zw.changeme.nbtapi.NBTCompoundList;
 import de.tr7zw.changeme.nbtapi.NBTItem;
 import de.tr7zw.changeme.nbtapi.iface.ReadWriteNBT;
 import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.logging.Level;
 
 /**
  * The Item utility class
@@ -22,49 +30,466 @@ public class ItemManager {
 
     private final ELib eLib;
     private final EnchantmentManager enchantmentManager;
+    private final Set<NamespacedKey> reportedUnknownToServer;
+    private ItemEnchantmentCache cache;
 
     public ItemManager(ELib eLib, EnchantmentManager enchantmentManager) {
         this.eLib = eLib;
         this.enchantmentManager = enchantmentManager;
+        this.reportedUnknownToServer = ConcurrentHashMap.newKeySet();
     }
 
     /**
-     * Get a map containing all registered enchantments on an item with the corresponding levels
+     * Enables caching of parsed item enchantments, so repeated reads of an unchanged ItemStack instance don't parse it again.
+     * The cache is disabled by default. If it is already enabled, it gets replaced by an empty one.
      *
-     * @param nbtItem the NBTItem element of the item whose enchantments are to be obtained
-     * @return a map containing all registered enchantments on the item with the corresponding levels
-     * @since 0.0.6
+     * @param maximumSize the maximum number of cached items
+     * @return the new cache, e.g. to read its statistics
+     * @see ItemEnchantmentCache
+     * @since 0.0.8
      */
-    public Map<Enchantment, Short> getEnchantments(NBTItem nbtItem) {
+    public ItemEnchantmentCache enableCache(long maximumSize) {
+        cache = new ItemEnchantmentCache(enchantmentManager::getRegistryVersion, maximumSize);
+        return cache;
+    }
+
+    /**
+     * Disables caching of parsed item enchantments
+     *
+     * @since 0.0.8
+     */
+    public void disableCache() {
+        cache = null;
+    }
+
+    /**
+     * @return the cache of parsed item enchantments, null if it is disabled
+     * @since 0.0.8
+     */
+    public ItemEnchantmentCache getCache() {
+        return cache;
+    }
+
+    private void invalidateCache(ItemStack item) {
+        ItemEnchantmentCache cache = this.cache;
+        if (cache != null)
+            cache.invalidate(item);
+    }
+
+    LoreManager.BatchLines newLoreLines() {
+        return eLib.getLoreManager().newBatchLines();
+    }
+
+    void flushLoreUpdate(ItemStack item) {
+        LoreUpdateScheduler loreUpdateScheduler = eLib.getLoreUpdateScheduler();
+        if (loreUpdateScheduler != null)
+            loreUpdateScheduler.flush(item);
+    }
+
+    /**
+     * Starts an edit session for an item. All changes of the session are applied at once on {@link ItemEditSession#commit()},
+     * with a single lore update and a single NBT write.
+     *
+     * @param item the item to edit
+     * @return a new edit session for the item
+     * @since 0.0.8
+     */
+    public ItemEditSession edit(ItemStack item) {
+        return new ItemEditSession(this, enchantmentManager, item);
+    }
+
+    /**
+     * Takes a snapshot of the enchantments of an item, that can be read from any thread. Has to be called on the main thread.
+     *
+     * @param item the item
+     * @return the snapshot, null if the item is null or air
+     * @see ItemSnapshot
+     * @since 0.0.8
+     */
+    public ItemSnapshot snapshot(ItemStack item) {
+        if (item == null || item.getType().isAir())
+            return null;
+        return new ItemSnapshot(item, -1);
+    }
+
+    /**
+     * Takes snapshots of the enchantments of all items of an inventory, that can be read from any thread. Has to be called on the main thread.
+     *
+     * @param inventory the inventory
+     * @return the snapshots of all non-empty slots in slot order, see {@link ItemSnapshot#getSlot()}
+     * @see ItemSnapshot
+     * @since 0.0.8
+     */
+    public List<ItemSnapshot> snapshotAll(Inventory inventory) {
+
+        if (inventory == null)
+            return Collections.emptyList();
+
+        List<ItemSnapshot> snapshots = new ArrayList<>();
+
+        for (int slot = 0; slot < inventory.getSize(); slot++) {
+            ItemStack item = inventory.getItem(slot);
+            if (item != null && !item.getType().isAir())
+                snapshots.add(new ItemSnapshot(item, slot));
+        }
+
+        return Collections.unmodifiableList(snapshots);
+
+    }
+
+    /**
+     * Creates a query, that finds the slots of inventories, whose items match a predicate
+     *
+     * @param predicate the predicate the items have to match (if null, no item matches)
+     * @return a new query, that can be used for any number of inventories
+     * @since 0.0.8
+     */
+    public InventoryQuery query(EnchantmentPredicate predicate) {
+        if (predicate == null)
+            return new InventoryQuery(this, levels -> false);
+        return new InventoryQuery(this, predicate);
+    }
+
+    /**
+     * Starts a bulk edit. The operations of a bulk edit are applied to many items at once, e.g. to a whole inventory.
+     *
+     * @return a new bulk edit
+     * @since 0.0.8
+     */
+    public BulkItemEdit bulkEdit() {
+        return new BulkItemEdit(this, enchantmentManager);
+    }
+
+    boolean commit(ItemStack item, Map<Enchantment, Short> changes, boolean checkConflicts, boolean updateLore) {
+
+        if (item == null || item.getType().isAir())
+            return false;
+
+        List<NamespacedKey> unknownToServer = unknownToServer(changes, enchantmentManager::isRegisteredToServer);
+
+        if (!unknownToServer.isEmpty()) {
+            reportUnknownToServer(unknownToServer);
+            return false;
+        }
+
+        if (changes.isEmpty())
+            return true;
+
+        NBTItem nbtItem = new NBTItem(item);
+        EnchantmentLevels current = getEnchantmentLevels(nbtItem);
+
+        if (checkConflicts && hasConflicts(current, changes))
+            return false;
+
+        write(item, nbtItem, current, changes, updateLore, false, null);
+
+        return true;
 
-        Map<Enchantment, Short> result = new HashMap<>();
+    }
 
-        if (nbtItem == null)
-            return result;
+    /*
+     * Writes the changes to the item with a single NBT write. Conflicts and whether the server knows the added enchantments
+     * have to be checked before. The lore is rendered from the resulting levels, so the item isn't parsed again.
+     */
+    void write(ItemStack item, NBTItem nbtItem, EnchantmentLevels current, Map<Enchantment, Short> changes, boolean updateLore, boolean stripUnregistered, LoreManager.BatchLines loreLines) {
 
         NBTCompoundList enchantments = nbtItem.getCompoundList("Enchantments");
+        Set<Enchantment> applied = new HashSet<>();
 
-        for (ReadWriteNBT enchantment : enchantments) {
-            NamespacedKey namespacedKey = NamespacedKey.fromString(enchantment.getString("id"), null);
-            Enchantment registeredEnchantment = enchantmentManager.getByNamespacedKey(namespacedKey);
-            if (registeredEnchantment == null)
+        // update existing entries in place, so the order of the enchantments stays the same
+        for (int i = enchantments.size() - 1; i >= 0; i--) {
+
+            ReadWriteNBT entry = enchantments.get(i);
+            Enchantment enchantment = enchantmentManager.getByNamespacedKey(entry.getString("id"));
+
+            if (enchantment == null) {
+                if (stripUnregistered)
+                    enchantments.remove(i);
                 continue;
-            if (enchantment.getInteger("lvl") < 1)
+            }
+
+            Short level = changes.get(enchantment);
+
+            if (level == null)
                 continue;
-            short level;
-            if (enchantment.getInteger("lvl") > Short.MAX_VALUE)
-                level = Short.MAX_VALUE;
+
+            if (level < 1 || !applied.add(enchantment))
+                enchantments.remove(i);
             else
-                level = enchantment.getInteger("lvl").shortValue();
-            result.put(registeredEnchantment, level);
+                entry.setShort("lvl", level);
+
+        }
+
+        for (Map.Entry<Enchantment, Short> change : changes.entrySet()) {
+
+            if (change.getValue() < 1 || applied.contains(change.getKey()))
+                continue;
+
+            ReadWriteNBT entry = enchantments.addCompound();
+            entry.setString("id", change.getKey().getNamespacedKey().toString());
+            entry.setShort("lvl", change.getValue());
+
+        }
+
+        if (enchantments.isEmpty())
+            nbtItem.removeKey("Enchantments");
+
+        boolean deferLore = updateLore && eLib.getLoreManager().isDeferringUpdates();
+
+        if (updateLore && !deferLore)
+            eLib.getLoreManager().updateLore(nbtItem, withChanges(current, changes), loreLines);
+
+        nbtItem.applyNBT(item);
+
+        invalidateCache(item);
+
+        if (deferLore)
+            eLib.getLoreManager().requestLoreUpdate(item);
+
+    }
+
+    // the levels after writing the changes, in the order getEnchantmentLevels would read them from the item
+    private EnchantmentLevels withChanges(EnchantmentLevels current, Map<Enchantment, Short> changes) {
+
+        int capacity = current.size() + changes.size();
+        Enchantment[] registeredEnchantments = new Enchantment[capacity];
+        int[] ids = new int[capacity];
+        short[] levels = new short[capacity];
+        int size = 0;
+
+        for (int i = 0; i < current.size(); i++) {
+
+            Enchantment enchantment = current.getEnchantment(i);
+            Short change = changes.get(enchantment);
+            short level = change == null ? current.getLevel(i) : change;
+
+            if (level < 1)
+                continue;
+
+            registeredEnchantments[size] = enchantment;
+            ids[size] = current.getId(i);
+            levels[size] = level;
+            size++;
+
+        }
+
+        for (Map.Entry<Enchantment, Short> change : changes.entrySet()) {
+
+            if (change.getValue() < 1 || current.contains(change.getKey()))
+                continue;
+
+            int id = enchantmentManager.getId(change.getKey());
+            if (id < 0)
+                continue;
+
+            registeredEnchantments[size] = change.getKey();
+            ids[size] = id;
+            levels[size] = change.getValue();
+            size++;
+
+        }
+
+        if (size == 0)
+            return EnchantmentLevels.EMPTY;
+
+        return new EnchantmentLevels(registeredEnchantments, ids, levels, size);
+
+    }
+
+    /*
+     * The keys of the enchantments the changes would add, but the server doesn't know. Like setEnchantment, these are never
+     * added, they can only be removed.
+     */
+    static List<NamespacedKey> unknownToServer(Map<Enchantment, Short> changes, Predicate<NamespacedKey> registeredToServer) {
+
+        List<NamespacedKey> result = Collections.emptyList();
+
+        for (Map.Entry<Enchantment, Short> change : changes.entrySet()) {
+
+            NamespacedKey namespacedKey = change.getKey().getNamespacedKey();
+
+            if (change.getValue() < 1 || registeredToServer.test(namespacedKey))
+                continue;
+
+            if (result.isEmpty())
+                result = new ArrayList<>();
+
+            result.add(namespacedKey);
+
         }
 
         return result;
 
     }
 
+    // the same session is usually committed for many items, so every key is only logged the first time
+    private void reportUnknownToServer(List<NamespacedKey> unknownToServer) {
+
+        List<NamespacedKey> unreported = new ArrayList<>();
+
+        for (NamespacedKey namespacedKey : unknownToServer) {
+            if (reportedUnknownToServer.add(namespacedKey))
+                unreported.add(namespacedKey);
+        }
+
+        if (!unreported.isEmpty())
+            eLib.getLogger().log(Level.WARNING, "Couldn't commit the changes to an item, " + unreported + " aren't registered to the server and can't be added!");
+
+    }
+
+    // checks the added enchantments against each other and against the enchantments, that stay on the item
+    private boolean hasConflicts(EnchantmentLevels current, Map<Enchantment, Short> changes) {
+
+        for (Map.Entry<Enchantment, Short> change : changes.entrySet()) {
+
+            if (change.getValue() < 1)
+                continue;
+
+            Enchantment enchantment = change.getKey();
+
+            for (int i = 0; i < current.size(); i++) {
+                Enchantment other = current.getEnchantment(i);
+                if (other == enchantment || changes.containsKey(other))
+                    continue;
+                if (enchantmentManager.conflicts(enchantment, other))
+                    return true;
+            }
+
+            for (Map.Entry<Enchantment, Short> otherChange : changes.entrySet()) {
+                if (otherChange.getKey() == enchantment || otherChange.getValue() < 1)
+                    continue;
+                if (enchantmentManager.conflicts(enchantment, otherChange.getKey()))
+                    return true;
+            }
+
+        }
+
+        return false;
+
+    }
+
+    /**
+     * Get all registered enchantments on an item with the corresponding levels as primitive, compact levels.
+     * Unlike {@link #getEnchantments(NBTItem)} this doesn't box any levels and doesn't create a HashMap.
+     *
+     * @param nbtItem the NBTItem element of the item whose enchantments are to be obtained
+     * @return the levels of all registered enchantments on the item, in the order of the item's enchantment list
+     * @since 0.0.8
+     */
+    public EnchantmentLevels getEnchantmentLevels(NBTItem nbtItem) {
+
+        if (nbtItem == null || !nbtItem.hasTag("Enchantments"))
+            return EnchantmentLevels.EMPTY;
+
+        NBTCompoundList enchantments = nbtItem.getCompoundList("Enchantments");
+
+        int capacity = enchantments.size();
+        Enchantment[] registeredEnchantments = new Enchantment[capacity];
+        int[] ids = new int[capacity];
+        short[] levels = new short[capacity];
+        int size = 0;
+
+        for (ReadWriteNBT enchantment : enchantments) {
+
+            Enchantment registeredEnchantment = enchantmentManager.getByNamespacedKey(enchantment.getString("id"));
+            if (registeredEnchantment == null)
+                continue;
+
+            short level = toLevel(enchantment.getInteger("lvl"));
+            if (level < 1)
+                continue;
+
+            int index = indexOf(registeredEnchantments, size, registeredEnchantment);
+            if (index < 0) {
+                index = size++;
+                registeredEnchantments[index] = registeredEnchantment;
+                ids[index] = enchantmentManager.getId(registeredEnchantment);
+            }
+            levels[index] = level;
+
+        }
+
+        if (size == 0)
+            return EnchantmentLevels.EMPTY;
+
+        return new EnchantmentLevels(registeredEnchantments, ids, levels, size);
+
+    }
+
+    /**
+     * Get all registered enchantments on an item with the corresponding levels as primitive, compact levels.
+     * Unlike {@link #getEnchantments(ItemStack)} this doesn't box any levels and doesn't create a HashMap.
+     *
+     * @param item the item whose enchantments are to be obtained
+     * @return the levels of all registered enchantments on the item, in the order of the item's enchantment list
+     * @since 0.0.8
+     */
+    public EnchantmentLevels getEnchantmentLevels(ItemStack item) {
+
+        if (item == null || item.getType().isAir() || !item.hasItemMeta())
+            return EnchantmentLevels.EMPTY;
+
+        ItemEnchantmentCache cache = this.cache;
+        if (cache != null)
+            return cache.get(item, cachedItem -> getEnchantmentLevels(new NBTItem(cachedItem)));
+
+        return getEnchantmentLevels(new NBTItem(item));
+
+    }
+
+    /**
+     * Get a view of all registered enchantments on an item with the corresponding levels. The item is parsed only once.
+     *
+     * @param nbtItem the NBTItem element of the item whose enchantments are to be obtained
+     * @return an immutable view of all registered enchantments on the item with the corresponding levels
+     * @since 0.0.8
+     */
+    public ItemEnchantments getItemEnchantments(NBTItem nbtItem) {
+
+        EnchantmentLevels levels = getEnchantmentLevels(nbtItem);
+
+        if (levels.isEmpty())
+            return ItemEnchantments.EMPTY;
+
+        return new ItemEnchantments(levels);
+
+    }
+
+    /**
+     * Get a view of all registered enchantments on an item with the corresponding levels. The item is parsed only once.
+     *
+     * @param item the item whose enchantments are to be obtained
+     * @return an immutable view of all registered enchantments on the item with the corresponding levels
+     * @since 0.0.8
+     */
+    public ItemEnchantments getItemEnchantments(ItemStack item) {
+
+        EnchantmentLevels levels = getEnchantmentLevels(item);
+
+        if (levels.isEmpty())
+            return ItemEnchantments.EMPTY;
+
+        return new ItemEnchantments(levels);
+
+    }
+
+    /**
+     * Get a map containing all registered enchantments on an item with the corresponding levels.
+     * The returned map is a modifiable copy, use {@link #getEnchantmentLevels(NBTItem)} to avoid the copy.
+     *
+     * @param nbtItem the NBTItem element of the item whose enchantments are to be obtained
+     * @return a map containing all registered enchantments on the item with the corresponding levels
+     * @since 0.0.6
+     */
+    public Map<Enchantment, Short> getEnchantments(NBTItem nbtItem) {
+
+        return new HashMap<>(getEnchantmentLevels(nbtItem).asMap());
+
+    }
+
     /**
-     * Get a map containing all registered enchantments on an item with the corresponding levels
+     * Get a map containing all registered enchantments on an item with the corresponding levels.
+     * The returned map is a modifiable copy, use {@link #getEnchantmentLevels(ItemStack)} to avoid the copy.
      *
      * @param item the item whose enchantments are to be obtained
      * @return a map containing all registered enchantments on the item with the corresponding levels
@@ -72,9 +497,7 @@ public class ItemManager {
      */
     public Map<Enchantment, Short> getEnchantments(ItemStack item) {
 
-        NBTItem nbtItem = new NBTItem(item);
-
-        return getEnchantments(nbtItem);
+        return new HashMap<>(getEnchantmentLevels(item).asMap());
 
     }
 
@@ -88,13 +511,7 @@ public class ItemManager {
      */
     public boolean hasEnchantment(ItemStack item, Enchantment enchantment) {
 
-        if (enchantment == null)
-            return false;
-
-        if (item == null || item.getType().isAir())
-            return false;
-
-        return getEnchantments(item).containsKey(enchantment);
+        return probeLevel(item, enchantment) > 0;
 
     }
 
@@ -140,15 +557,7 @@ public class ItemManager {
      */
     public short getEnchantmentLevel(ItemStack item, Enchantment enchantment) {
 
-        if (enchantment == null)
-            return 0;
-
-        if (!hasEnchantment(item, enchantment))
-            return 0;
-
-        Map<Enchantment, Short> enchantments = getEnchantments(item);
-
-        return enchantments.get(enchantment);
+        return probeLevel(item, enchantment);
 
     }
 
@@ -310,24 +719,18 @@ public class ItemManager {
 
         int level = getEnchantmentLevel(item, enchantment);
 
-        ItemMeta itemMeta = item.getItemMeta();
+        org.bukkit.enchantments.Enchantment serverEnchantment = enchantmentManager.getServerEnchantment(enchantment.getNamespacedKey());
 
-        Map<org.bukkit.enchantments.Enchantment, Integer> enchantments = itemMeta.getEnchants();
+        if (serverEnchantment != null)
+            item.removeEnchantment(serverEnchantment);
 
-        for (Map.Entry<org.bukkit.enchantments.Enchantment, Integer> ench : enchantments.entrySet()) {
-            NamespacedKey namespacedKey = ench.getKey().getKey();
-            boolean isEnchantment = namespacedKey.equals(enchantment.getNamespacedKey());
-            if (isEnchantment) {
-                item.removeEnchantment(ench.getKey());
-                break;
-            }
-        }
+        invalidateCache(item);
 
         if (level < 1)
             return 0;
 
         if (updateLore)
-            eLib.getLoreManager().updateLore(item);
+            eLib.getLoreManager().requestLoreUpdate(item);
 
         return (short) level;
 
@@ -389,19 +792,20 @@ public class ItemManager {
             return 0;
 
         if (level < 1)
-            return removeEnchantment(item, enchantment);
+            return removeEnchantment(item, enchantment, updateLore);
 
-        short oldLevel = removeEnchantment(item, enchantment);
+        // the lore is updated once below, after the new level was added
+        short oldLevel = removeEnchantment(item, enchantment, false);
 
-        for (org.bukkit.enchantments.Enchantment ench : Enchantment.values()) {
-            if (ench.getKey().equals(enchantment.getNamespacedKey())) {
-                item.addUnsafeEnchantment(ench, level);
-                break;
-            }
-        }
+        org.bukkit.enchantments.Enchantment serverEnchantment = enchantmentManager.getServerEnchantment(enchantment.getNamespacedKey());
+
+        if (serverEnchantment != null)
+            item.addUnsafeEnchantment(serverEnchantment, level);
+
+        invalidateCache(item);
 
         if (updateLore)
-            eLib.getLoreManager().updateLore(item);
+            eLib.getLoreManager().requestLoreUpdate(item);
 
         return oldLevel;
 
@@ -449,4 +853,87 @@ public class ItemManager {
 
     }
 
+    /*
+     * Looks up the level of a single enchantment without building a map of all enchantments on the item.
+     * The server's own enchantment handle can't be used for vanilla enchantments, as it returns the first of duplicate entries.
+     */
+    private short probeLevel(ItemStack item, Enchantment enchantment) {
+
+        if (enchantment == null || item == null || item.getType().isAir() || !item.hasItemMeta())
+            return 0;
+
+        NamespacedKey namespacedKey = enchantment.getNamespacedKey();
+
+        if (!enchantmentManager.isRegistered(namespacedKey))
+            return 0;
+
+        // a cached parse is cheaper than scanning the item's NBT again
+        if (cache != null)
+            return getEnchantmentLevels(item).level(enchantmentManager.getByNamespacedKey(namespacedKey));
+
+        NBTItem nbtItem = new NBTItem(item);
+
+        if (!nbtItem.hasTag("Enchantments"))
+            return 0;
+
+        return probeLevel(nbtItem.getCompoundList("Enchantments"), namespacedKey);
+
+    }
+
+    /*
+     * The level of the last entry with a matching id and a level of at least 1, the same rule getEnchantmentLevels(NBTItem)
+     * uses for enchantments that appear more than once on an item.
+     */
+    static short probeLevel(Iterable<? extends ReadWriteNBT> enchantments, NamespacedKey namespacedKey) {
+
+        short level = 0;
+
+        for (ReadWriteNBT entry : enchantments) {
+            if (!matches(entry.getString("id"), namespacedKey))
+                continue;
+            short entryLevel = toLevel(entry.getInteger("lvl"));
+            if (entryLevel > 0)
+                level = entryLevel;
+        }
+
+        return level;
+
+    }
+
+    // compares an enchantment id of the item's NBT with a key without creating a new string or key
+    private static boolean matches(String id, NamespacedKey namespacedKey) {
+
+        if (id == null)
+            return false;
+
+        String namespace = namespacedKey.getNamespace();
+        String key = namespacedKey.getKey();
+
+        // un-namespaced ids (e.g. "sharpness") belong to the minecraft namespace
+        if (id.indexOf(':') < 0)
+            return namespace.equals(NamespacedKey.MINECRAFT) && id.equals(key);
+
+        return id.length() == namespace.length() + 1 + key.length()
+                && id.startsWith(namespace)
+                && id.charAt(namespace.length()) == ':'
+                && id.endsWith(key);
+
+    }
+
+    private static int indexOf(Enchantment[] enchantments, int size, Enchantment enchantment) {
+        for (int i = 0; i < size; i++) {
+            if (enchantments[i] == enchantment)
+                return i;
+        }
+        return -1;
+    }
+
+    private static short toLevel(Integer lvl) {
+        if (lvl == null || lvl < 1)
+            return 0;
+        if (lvl > Short.MAX_VALUE)
+            return Short.MAX_VALUE;
+        return lvl.shortValue();
+    }
+
 }
@@ -0,0 +1,245 @@
+package de.drachir000.library.utils;
+
+import de.drachir000.library.enchantments.Enchantment;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An immutable, thread safe snapshot of the enchantments of an item.
+ * <br>
+ * Taking a snapshot (on the main thread) only captures the item's enchantment map, without copying the item. The map is converted lazily on the first query,
+ * which can happen on any thread, e.g. in an async task or a parallel stream. Queries only compare keys and never access the {@link EnchantmentManager}, so they are safe off the main thread.
+ * Snapshots contain all enchantments of the item, that are registered to the server, including enchantments that aren't registered to ELib.
+ *
+ * @author Drachir000
+ * @see ItemManager#snapshot(ItemStack)
+ * @see ItemManager#snapshotAll(org.bukkit.inventory.Inventory)
+ * @since 0.0.8
+ */
+public final class ItemSnapshot {
+
+    private static final String[] NO_IDS = new String[0];
+    private static final short[] NO_LEVELS = new short[0];
+
+    private final int slot;
+    private final Material type;
+    private final int amount;
+
+    // the captured enchantments are only read once by the thread, that converts them, and released afterwards
+    private volatile Map<org.bukkit.enchantments.Enchantment, Integer> enchantments;
+    private volatile String[] ids;
+    private short[] levels;
+
+    ItemSnapshot(ItemStack item, int slot) {
+        this.slot = slot;
+        this.type = item.getType();
+        this.amount = item.getAmount();
+        if (item.hasItemMeta()) {
+            // an immutable map, that a CraftItemStack reads straight from its NBT without copying the item
+            this.enchantments = item.getEnchantments();
+        } else {
+            this.levels = NO_LEVELS;
+            this.ids = NO_IDS;
+        }
+    }
+
+    private String[] ids() {
+        String[] result = ids;
+        if (result == null) {
+            synchronized (this) {
+                result = ids;
+                if (result == null) {
+                    result = parse();
+                    enchantments = null;
+                }
+            }
+        }
+        return result;
+    }
+
+    // sets the levels and returns the ids, the volatile write of the ids publishes the levels
+    private String[] parse() {
+
+        Map<org.bukkit.enchantments.Enchantment, Integer> enchantments = this.enchantments;
+
+        String[] parsedIds = new String[enchantments.size()];
+        short[] parsedLevels = new short[enchantments.size()];
+        int size = 0;
+
+        for (Map.Entry<org.bukkit.enchantments.Enchantment, Integer> enchantment : enchantments.entrySet()) {
+
+            Integer lvl = enchantment.getValue();
+
+            if (lvl == null || lvl < 1)
+                continue;
+
+            parsedIds[size] = enchantment.getKey().getKey().toString();
+            parsedLevels[size] = lvl > Short.MAX_VALUE ? Short.MAX_VALUE : lvl.shortValue();
+            size++;
+
+        }
+
+        if (size < parsedIds.length) {
+            String[] trimmedIds = new String[size];
+            short[] trimmedLevels = new short[size];
+            System.arraycopy(parsedIds, 0, trimmedIds, 0, size);
+            System.arraycopy(parsedLevels, 0, trimmedLevels, 0, size);
+            parsedIds = trimmedIds;
+            parsedLevels = trimmedLevels;
+        }
+
+        levels = parsedLevels;
+        ids = parsedIds;
+
+        return parsedIds;
+
+    }
+
+    // un-namespaced ids (e.g. "sharpness") belong to the minecraft namespace
+    private static String normalize(String id) {
+        return id.indexOf(':') < 0 ? NamespacedKey.MINECRAFT + ":" + id : id;
+    }
+
+    /**
+     * @return the index of the inventory slot the item was in, -1 if the snapshot wasn't taken from an inventory
+     * @since 0.0.8
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * @return the type of the item
+     * @since 0.0.8
+     */
+    public Material getType() {
+        return type;
+    }
+
+    /**
+     * @return the amount of the item
+     * @since 0.0.8
+     */
+    public int getAmount() {
+        return amount;
+    }
+
+    /**
+     * @return the number of enchantments on the item
+     * @since 0.0.8
+     */
+    public int size() {
+        return ids().length;
+    }
+
+    /**
+     * @return true, if the item has no enchantments
+     * @since 0.0.8
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @param index the index of the enchantment, from 0 (inclusive) to {@link #size()} (exclusive)
+     * @return the id of the enchantment (always namespaced, e.g. "minecraft:sharpness")
+     * @since 0.0.8
+     */
+    public String getId(int index) {
+        return ids()[index];
+    }
+
+    /**
+     * @param index the index of the enchantment, from 0 (inclusive) to {@link #size()} (exclusive)
+     * @return the level of the enchantment
+     * @since 0.0.8
+     */
+    public short getLevel(int index) {
+        ids();
+        return levels[index];
+    }
+
+    /**
+     * Un-namespaced keys (e.g. "sharpness") are resolved in the minecraft namespace.
+     *
+     * @param namespacedKey the namespacedKey of the enchantment to check for
+     * @return the level of the enchantment on the item (when the item isn't enchanted with this enchantment 0)
+     * @since 0.0.8
+     */
+    public short level(String namespacedKey) {
+        if (namespacedKey == null)
+            return 0;
+        String id = normalize(namespacedKey);
+        String[] ids = ids();
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i].equals(id))
+                return levels[i];
+        }
+        return 0;
+    }
+
+    /**
+     * @param namespacedKey the namespacedKey of the enchantment to check for
+     * @return the level of the enchantment on the item (when the item isn't enchanted with this enchantment 0)
+     * @since 0.0.8
+     */
+    public short level(NamespacedKey namespacedKey) {
+        return namespacedKey == null ? 0 : level(namespacedKey.toString());
+    }
+
+    /**
+     * @param enchantment the enchantment to check for
+     * @return the level of the enchantment on the item (when the item isn't enchanted with this enchantment 0)
+     * @since 0.0.8
+     */
+    public short level(Enchantment enchantment) {
+        return enchantment == null ? 0 : level(enchantment.getNamespacedKey());
+    }
+
+    /**
+     * Un-namespaced keys (e.g. "sharpness") are resolved in the minecraft namespace.
+     *
+     * @param namespacedKey the namespacedKey of the enchantment to check
+     * @return true, if the item is enchanted with the enchantment
+     * @since 0.0.8
+     */
+    public boolean has(String namespacedKey) {
+        return level(namespacedKey) > 0;
+    }
+
+    /**
+     * @param namespacedKey the namespacedKey of the enchantment to check
+     * @return true, if the item is enchanted with the enchantment
+     * @since 0.0.8
+     */
+    public boolean has(NamespacedKey namespacedKey) {
+        return level(namespacedKey) > 0;
+    }
+
+    /**
+     * @param enchantment the enchantment to check
+     * @return true, if the item is enchanted with the enchantment
+     * @since 0.0.8
+     */
+    public boolean has(Enchantment enchantment) {
+        return level(enchantment) > 0;
+    }
+
+    /**
+     * @return an unmodifiable map containing the ids of all enchantments on the item with the corresponding levels, in the order of the item's enchantment list
+     * @since 0.0.8
+     */
+    public Map<String, Short> asMap() {
+        String[] ids = ids();
+        Map<String, Short> result = new LinkedHashMap<>();
+        for (int i = 0; i < ids.length; i++)
+            result.put(ids[i], levels[i]);
+        return Collections.unmodifiableMap(result);
+    }
+
+}
@@ -0,0 +1,59 @@
+package de.drachir000.library.utils;
+
+import de.drachir000.library.enchantments.Enchantment;
+
+/**
+ * The fingerprint of the lore ELib writes for an item, that is stored on the item to skip lore updates, which wouldn't change anything.
+ * It only depends on the enchantments of the item, the properties of their lore lines and the size of the lore,
+ * so it stays valid across server restarts and for every instance of an enchantment with the same properties.
+ *
+ * @author Drachir000
+ * @see LoreManager#updateLore(org.bukkit.inventory.ItemStack)
+ * @since 0.0.8
+ */
+final class LoreFingerprint {
+
+    // has to be changed with the format of the lore lines, so fingerprints of lines in the old format don't match anymore
+    private static final int FORMAT_VERSION = 1;
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private LoreFingerprint() {
+    }
+
+    /*
+     * The key and level of every enchantment and everything its lore line is rendered from (name, prefixes and maxLevel).
+     * The lore size catches other plugins replacing the lore.
+     */
+    static long of(EnchantmentLevels enchantmentLevels, int loreSize) {
+
+        long fingerprint = FORMAT_VERSION;
+
+        fingerprint = mix(fingerprint, loreSize);
+
+        for (int i = 0; i < enchantmentLevels.size(); i++) {
+
+            Enchantment enchantment = enchantmentLevels.getEnchantment(i);
+
+            fingerprint = mix(fingerprint, hash(enchantment.getNamespacedKey().toString()));
+            fingerprint = mix(fingerprint, enchantmentLevels.getLevel(i));
+            fingerprint = mix(fingerprint, hash(enchantment.getName()));
+            fingerprint = mix(fingerprint, hash(enchantment.getDefaultPrefix()));
+            fingerprint = mix(fingerprint, hash(enchantment.getMaxLevelPrefix()));
+            fingerprint = mix(fingerprint, enchantment.getMaxLevel());
+
+        }
+
+        return fingerprint;
+
+    }
+
+    private static long mix(long fingerprint, int value) {
+        return fingerprint * MULTIPLIER + value;
+    }
+
+    // String#hashCode is specified, so it is the same on every server start
+    private static int hash(String value) {
+        return value == null ? 0 : value.hashCode();
+    }
+
+}
@@ -1,16 +1,23 @@
 package de.drachir000.library.utils;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonWriter;
 import de.drachir000.library.ELib;
 import de.drachir000.library.enchantments.Enchantment;
 import de.tr7zw.changeme.nbtapi.*;
-import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.inventory.ItemStack;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * The Item-Lore managing class
@@ -20,14 +27,28 @@ import java.util.Map;
  */
 public class LoreManager {
 
+    private static final LegacyComponentSerializer LEGACY_SERIALIZER = LegacyComponentSerializer.builder().hexColors().character('§').build();
+    private static final int MAX_CACHED_LEVEL = 255;
+    private static final String LORE_LINE_MARKER = "ELib-loreLine";
+    // every lore line written by ELib starts with this prefix
+    private static final String LORE_LINE_PREFIX = "[{\"" + LORE_LINE_MARKER + "\":\"true\"";
+    private static final String SEPARATOR_LINE = LORE_LINE_PREFIX + ",\"text\":\"\"}]";
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+    private static final String FINGERPRINT_TAG = "ELib-loreFingerprint";
+
     private final ELib eLib;
 
+    // rendered lore lines by enchantment, outdated entries (also of another instance with the same key) are detected by the render version
+    private final Map<Enchantment, RenderedLines> renderCache;
+
     public LoreManager(ELib eLib) {
         this.eLib = eLib;
+        this.renderCache = new WeakHashMap<>();
     }
 
     /**
      * Updates the lore of an item.
+     * If the lore of the item is already up to date, e.g. because neither its enchantments nor their lore lines changed since the last update, the item is left untouched.
      *
      * @param item The item whose lore is to be updated
      * @since 0.0.6
@@ -37,15 +58,95 @@ public class LoreManager {
         if (!item.hasItemMeta())
             return;
 
-        NBTItem nbtItem = new NBTItem(item, true);
+        NBTItem nbtItem = new NBTItem(item);
 
-        hideFlags(nbtItem);
+        if (updateLore(nbtItem))
+            nbtItem.applyNBT(item);
+
+    }
+
+    /**
+     * Requests a lore update of an item. If deferred lore updates are enabled, the item is only marked as dirty and updated later
+     * (see {@link LoreUpdateScheduler}), otherwise the lore is updated right away.
+     *
+     * @param item The item whose lore is to be updated
+     * @since 0.0.8
+     */
+    public void requestLoreUpdate(ItemStack item) {
+
+        if (isDeferringUpdates())
+            eLib.getLoreUpdateScheduler().markDirty(item);
+        else
+            updateLore(item);
+
+    }
+
+    boolean isDeferringUpdates() {
+        LoreUpdateScheduler loreUpdateScheduler = eLib.getLoreUpdateScheduler();
+        return loreUpdateScheduler != null && loreUpdateScheduler.isEnabled();
+    }
+
+    /*
+     * Updates the lore on an NBTItem without writing it back to the item,
+     * so callers that change more of the item's NBT only need a single applyNBT.
+     * Returns false, if the lore is already up to date and nothing was changed.
+     */
+    boolean updateLore(NBTItem nbtItem) {
+        return updateLore(nbtItem, eLib.getItemManager().getEnchantmentLevels(nbtItem), null);
+    }
+
+    /*
+     * Like updateLore(NBTItem), but with the levels of the item already known, e.g. after writing changes to it.
+     * Lines are taken from the batch lines, if there are any.
+     */
+    boolean updateLore(NBTItem nbtItem, EnchantmentLevels enchantmentLevels, BatchLines batchLines) {
+
+        boolean hasFingerprint = nbtItem.hasTag(FINGERPRINT_TAG);
+
+        if (hasFingerprint && nbtItem.getLong(FINGERPRINT_TAG) == LoreFingerprint.of(enchantmentLevels, getLoreSize(nbtItem)))
+            return false;
+
+        List<String> oldLore = getLore(nbtItem);
 
         removeLore(nbtItem);
 
-        addLore(nbtItem);
+        addLore(nbtItem, enchantmentLevels, batchLines);
 
-        nbtItem.applyNBT(item);
+        // items, whose lore is already up to date, are left untouched, so they still stack with equal items
+        if (!hasFingerprint && oldLore.equals(getLore(nbtItem)))
+            return false;
+
+        hideFlags(nbtItem);
+
+        // only items with ELib lore get a fingerprint
+        if (enchantmentLevels.isEmpty())
+            nbtItem.removeKey(FINGERPRINT_TAG);
+        else
+            nbtItem.setLong(FINGERPRINT_TAG, LoreFingerprint.of(enchantmentLevels, getLoreSize(nbtItem)));
+
+        return true;
+
+    }
+
+    private List<String> getLore(NBTItem nbtItem) {
+
+        NBTCompound displayCompound = nbtItem.getCompound("display");
+
+        if (displayCompound == null || !displayCompound.hasTag("Lore"))
+            return Collections.emptyList();
+
+        return new ArrayList<>(displayCompound.getStringList("Lore"));
+
+    }
+
+    private int getLoreSize(NBTItem nbtItem) {
+
+        NBTCompound displayCompound = nbtItem.getCompound("display");
+
+        if (displayCompound == null || !displayCompound.hasTag("Lore"))
+            return 0;
+
+        return displayCompound.getStringList("Lore").size();
 
     }
 
@@ -59,19 +160,40 @@ public class LoreManager {
 
         NBTCompound displayCompound = nbtItem.getCompound("display");
 
-        if (displayCompound == null)
+        if (displayCompound == null || !displayCompound.hasTag("Lore"))
             return;
 
         NBTList<String> loreEntries = displayCompound.getStringList("Lore");
-        Collection<String> toRemove = new ArrayList<>();
 
-        for (String loreEntry : loreEntries) {
-            NBTCompoundList lore = getLoreList(loreEntry);
-            if (lore.get(0).getString("ELib-loreLine").equals("true") || lore.get(0).getBoolean("ELib-loreLine"))
-                toRemove.add(loreEntry);
+        for (int i = loreEntries.size() - 1; i >= 0; i--) {
+            if (isLoreLine(loreEntries.get(i)))
+                loreEntries.remove(i);
         }
 
-        loreEntries.removeAll(toRemove);
+    }
+
+    private boolean isLoreLine(String loreEntry) {
+
+        if (loreEntry == null)
+            return false;
+
+        // lines written by this version always start with the marker
+        if (loreEntry.startsWith(LORE_LINE_PREFIX))
+            return true;
+
+        // lines of other plugins, that can't be an ELib line of an older version
+        if (!loreEntry.contains(LORE_LINE_MARKER))
+            return false;
+
+        // legacy lines of older versions, where the marker isn't at the start
+        try {
+            NBTCompoundList lore = getLoreList(loreEntry);
+            if (lore.isEmpty())
+                return false;
+            return "true".equals(lore.get(0).getString(LORE_LINE_MARKER)) || Boolean.TRUE.equals(lore.get(0).getBoolean(LORE_LINE_MARKER));
+        } catch (RuntimeException e) {
+            return false;
+        }
 
     }
 
@@ -88,57 +210,110 @@ public class LoreManager {
 
     }
 
-    private void addLore(NBTItem nbtItem) {
+    private void addLore(NBTItem nbtItem, EnchantmentLevels enchantmentLevels, BatchLines batchLines) {
+
+        if (enchantmentLevels.isEmpty())
+            return;
 
         NBTCompound displayCompound = nbtItem.getOrCreateCompound("display");
 
         NBTList<String> lore = displayCompound.getStringList("Lore");
 
-        Map<Enchantment, Short> enchantmentsMap = eLib.getItemManager().getEnchantments(nbtItem);
+        // the enchantment lines come first in the order of the item's enchantment list, followed by the separator
+        for (int i = 0; i < enchantmentLevels.size(); i++) {
+            Enchantment enchantment = enchantmentLevels.getEnchantment(i);
+            short level = enchantmentLevels.getLevel(i);
+            lore.add(i, batchLines != null ? batchLines.get(enchantment, enchantmentLevels.getId(i), level) : getLoreLine(enchantment, level));
+        }
+
+        lore.add(enchantmentLevels.size(), SEPARATOR_LINE);
 
-        if (enchantmentsMap.isEmpty())
-            return;
+    }
 
-        lore.add(0, "[{\"ELib-loreLine\": true, \"text\": \"\"}]");
+    private String getLoreLine(Enchantment enchantment, short level) {
 
-        for (Map.Entry<Enchantment, Short> enchantmentEntry : enchantmentsMap.entrySet()) {
+        if (level > MAX_CACHED_LEVEL)
+            return renderLoreLine(enchantment, level);
+
+        RenderedLines renderedLines = renderCache.get(enchantment);
+
+        if (renderedLines == null || renderedLines.renderVersion != enchantment.getRenderVersion()) {
+            renderedLines = new RenderedLines(enchantment.getRenderVersion());
+            renderCache.put(enchantment, renderedLines);
+        }
 
-            NBTCompound loreCompound = createLoreLine(enchantmentEntry.getKey(), enchantmentEntry.getValue());
-            String line = "[" + loreCompound + "]";
-            line = line.replaceAll("1b", "\"true\"")
-                    .replaceAll("0b", "\"false\"")
-                    .replaceAll("ELib-loreLine", "\"ELib-loreLine\"")
-                    .replaceAll("extra", "\"extra\"")
-                    .replaceAll("bold", "\"bold\"")
-                    .replaceAll("italic", "\"italic\"")
-                    .replaceAll("obfuscated", "\"obfuscated\"")
-                    .replaceAll("text", "\"text\"")
-                    .replaceAll("underlined", "\"underlined\"")
-                    .replaceAll("color", "\"color\"");
-            lore.add(0, line);
+        String line = renderedLines.lines[level];
 
+        if (line == null) {
+            line = renderLoreLine(enchantment, level);
+            renderedLines.lines[level] = line;
         }
 
+        return line;
+
     }
 
-    private NBTCompound createLoreLine(Enchantment enchantment, Short level) {
+    private String renderLoreLine(Enchantment enchantment, short level) {
 
         String loreLineString = getFullLoreLineString(enchantment, level);
 
-        String jsonLoreLineString = toJsonLore(loreLineString);
+        JsonElement component = GsonComponentSerializer.gson().serializeToTree(LEGACY_SERIALIZER.deserialize(loreLineString));
+
+        StringWriter stringWriter = new StringWriter(64 + loreLineString.length() * 2);
+
+        try (JsonWriter jsonWriter = new JsonWriter(stringWriter)) {
+
+            jsonWriter.beginArray();
+            jsonWriter.beginObject();
+
+            // the marker is always written first, so ELib lines can be recognized by their prefix
+            jsonWriter.name(LORE_LINE_MARKER).value("true");
+
+            boolean italic = false;
 
-        NBTCompound loreCompound = new NBTContainer(jsonLoreLineString);
+            if (component.isJsonObject()) {
+                for (Map.Entry<String, JsonElement> entry : component.getAsJsonObject().entrySet()) {
+                    if (entry.getKey().equals(LORE_LINE_MARKER))
+                        continue;
+                    if (entry.getKey().equals("italic"))
+                        italic = true;
+                    jsonWriter.name(entry.getKey());
+                    GSON.toJson(entry.getValue(), jsonWriter);
+                }
+            } else {
+                jsonWriter.name("text").value(component.getAsString());
+            }
+
+            if (!italic)
+                jsonWriter.name("italic").value(false);
+
+            jsonWriter.endObject();
+            jsonWriter.endArray();
 
-        loreCompound.setString("ELib-loreLine", "true");
+        } catch (IOException e) {
+            // a StringWriter doesn't throw
+            throw new IllegalStateException(e);
+        }
+
+        return stringWriter.toString();
 
-        if (!loreCompound.hasTag("italic"))
-            loreCompound.setBoolean("italic", false);
+    }
 
-        return loreCompound;
+    // new lines for a batch of lore updates, that must not outlive the batch
+    BatchLines newBatchLines() {
+        return new BatchLines(eLib.getEnchantmentManager().getIdSpaceSize());
+    }
 
+    /**
+     * Clears the cache of rendered lore lines. This isn't needed after changes to an enchantment, because they are detected automatically.
+     *
+     * @since 0.0.8
+     */
+    public void clearRenderCache() {
+        renderCache.clear();
     }
 
-    private String getFullLoreLineString(Enchantment enchantment, Short level) {
+    private String getFullLoreLineString(Enchantment enchantment, short level) {
 
         StringBuilder resultBuilder = new StringBuilder();
 
@@ -178,11 +353,53 @@ public class LoreManager {
         return resultBuilder.toString(); // TODO add config option to replace "I" with ""
     }
 
-    private String toJsonLore(String lore) {
+    /*
+     * The lore lines of one batch of lore updates, indexed by enchantment id and level. Enchantments don't change during a batch,
+     * so every line is looked up in the render cache once per batch and not validated again.
+     */
+    final class BatchLines {
+
+        private final String[][] lines;
+
+        private BatchLines(int idSpaceSize) {
+            this.lines = new String[idSpaceSize][];
+        }
+
+        private String get(Enchantment enchantment, int id, short level) {
+
+            if (id < 0 || id >= lines.length || level > MAX_CACHED_LEVEL)
+                return getLoreLine(enchantment, level);
+
+            String[] enchantmentLines = lines[id];
+
+            if (enchantmentLines == null) {
+                enchantmentLines = new String[MAX_CACHED_LEVEL + 1];
+                lines[id] = enchantmentLines;
+            }
+
+            String line = enchantmentLines[level];
+
+            if (line == null) {
+                line = getLoreLine(enchantment, level);
+                enchantmentLines[level] = line;
+            }
+
+            return line;
+
+        }
+
+    }
+
+    // the rendered lore lines of one enchantment, indexed by level
+    private static final class RenderedLines {
+
+        private final int renderVersion;
+        private final String[] lines;
 
-        LegacyComponentSerializer serializer = LegacyComponentSerializer.builder().hexColors().character('§').build();
-        TextComponent textComponent = serializer.deserialize(lore);
-        return GsonComponentSerializer.gson().serialize(textComponent);
+        private RenderedLines(int renderVersion) {
+            this.renderVersion = renderVersion;
+            this.lines = new String[MAX_CACHED_LEVEL + 1];
+        }
 
     }
 
@@ -0,0 +1,197 @@
+package de.drachir000.library.utils;
+
+import de.drachir000.library.ELib;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces lore updates. While deferred updates are enabled, {@link LoreManager#requestLoreUpdate(ItemStack)} only marks an item as dirty,
+ * no matter how often it is called for the same item. Dirty items are rendered once by a task, that runs every tick within a time budget,
+ * and all of them are rendered right away, when an inventory gets opened.
+ * <br>
+ * Items are tracked by identity. Note: the lore is written to the ItemStack instance, that was marked as dirty.
+ * If that instance isn't the live item (e.g. a copy, that was already put into an inventory), the change won't be visible.
+ * Use {@link #flush(ItemStack)} before copying or storing a dirty item, or {@link LoreManager#updateLore(ItemStack)} if the lore is needed immediately.
+ * <br>
+ * Deferred updates are disabled by default. The scheduler may only be used on the main thread.
+ *
+ * @author Drachir000
+ * @see ELib#getLoreUpdateScheduler()
+ * @since 0.0.8
+ */
+public class LoreUpdateScheduler implements Listener {
+
+    private static final long DEFAULT_TIME_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private final ELib eLib;
+    private final Set<ItemStack> dirtyItems;
+    private final Queue<ItemStack> queue;
+
+    private boolean enabled;
+    private long timeBudgetNanos;
+    private BukkitTask task;
+
+    /**
+     * @param eLib the instance of ELib
+     * @since 0.0.8
+     */
+    public LoreUpdateScheduler(ELib eLib) {
+        this.eLib = eLib;
+        this.dirtyItems = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.queue = new ArrayDeque<>();
+        this.timeBudgetNanos = DEFAULT_TIME_BUDGET_NANOS;
+    }
+
+    /**
+     * Starts the task, that renders dirty items every tick
+     *
+     * @since 0.0.8
+     */
+    public void start() {
+        if (task == null)
+            task = eLib.getServer().getScheduler().runTaskTimer(eLib, this::tick, 1, 1);
+    }
+
+    /**
+     * Renders all dirty items and stops the task
+     *
+     * @since 0.0.8
+     */
+    public void stop() {
+        flush();
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * @return true, if lore updates are deferred
+     * @since 0.0.8
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables deferred lore updates. Disabling renders all dirty items right away.
+     *
+     * @param enabled whether lore updates should be deferred
+     * @since 0.0.8
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled)
+            flush();
+    }
+
+    /**
+     * Sets the maximum time per tick, that is spent rendering dirty items. At least one item is rendered per tick, so every item gets rendered eventually.
+     *
+     * @param duration the time budget
+     * @param unit     the unit of the duration
+     * @since 0.0.8
+     */
+    public void setTimeBudget(long duration, TimeUnit unit) {
+        this.timeBudgetNanos = Math.max(0, unit.toNanos(duration));
+    }
+
+    /**
+     * @param unit the unit to return the time budget in
+     * @return the maximum time per tick, that is spent rendering dirty items
+     * @since 0.0.8
+     */
+    public long getTimeBudget(TimeUnit unit) {
+        return unit.convert(timeBudgetNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Marks an item as dirty, its lore gets updated later. Marking an item, that already is dirty, does nothing.
+     *
+     * @param item the item whose lore is to be updated
+     * @since 0.0.8
+     */
+    public void markDirty(ItemStack item) {
+        if (item != null && dirtyItems.add(item))
+            queue.add(item);
+    }
+
+    /**
+     * @param item the item to check
+     * @return true, if the item waits for a lore update
+     * @since 0.0.8
+     */
+    public boolean isDirty(ItemStack item) {
+        return item != null && dirtyItems.contains(item);
+    }
+
+    /**
+     * @return the number of items waiting for a lore update
+     * @since 0.0.8
+     */
+    public int getDirtyCount() {
+        return dirtyItems.size();
+    }
+
+    /**
+     * Updates the lore of an item right away, if it is dirty
+     *
+     * @param item the item
+     * @since 0.0.8
+     */
+    public void flush(ItemStack item) {
+        // the queue entry stays and is skipped later, because the item isn't dirty anymore
+        if (item != null && dirtyItems.remove(item))
+            eLib.getLoreManager().updateLore(item);
+    }
+
+    /**
+     * Updates the lore of all dirty items right away
+     *
+     * @since 0.0.8
+     */
+    public void flush() {
+        while (!queue.isEmpty())
+            render(queue.poll());
+    }
+
+    private void tick() {
+
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        boolean rendered = false;
+
+        while (!queue.isEmpty() && (!rendered || System.nanoTime() < deadline))
+            rendered |= render(queue.poll());
+
+    }
+
+    private boolean render(ItemStack item) {
+        if (!dirtyItems.remove(item))
+            return false;
+        eLib.getLoreManager().updateLore(item);
+        return true;
+    }
+
+    /**
+     * Renders all dirty items before the contents of an inventory are shown to a player
+     *
+     * @param event the event
+     * @since 0.0.8
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryOpen(InventoryOpenEvent event) {
+        flush();
+    }
+
+}
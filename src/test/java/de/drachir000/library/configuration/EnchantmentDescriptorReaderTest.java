@@ -0,0 +1,41 @@
+package de.drachir000.library.configuration;
+
+import org.bukkit.NamespacedKey;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnchantmentDescriptorReaderTest {
+
+    private static final Logger LOGGER = Logger.getLogger(EnchantmentDescriptorReaderTest.class.getName());
+
+    @Test
+    void invalidKeysAreReportedAndSkipped() throws IOException {
+
+        String json = "{"
+                + "\"\": {\"enchantment-target\": \"ALL\", \"curse\": false, \"conflicts\": [], \"enchantable\": []},"
+                + "\"test:a\": {\"enchantment-target\": \"ALL\", \"curse\": false, \"conflicts\": [\"\", \"test:b\"], \"enchantable\": []}"
+                + "}";
+
+        EnchantmentDescriptorReader reader = new EnchantmentDescriptorReader(LOGGER, "test.json");
+        Map<NamespacedKey, EnchantmentDescriptor> descriptors = reader.read(new StringReader(json));
+
+        assertEquals(1, descriptors.size());
+
+        EnchantmentDescriptor descriptor = descriptors.get(NamespacedKey.fromString("test:a", null));
+        assertEquals(1, descriptor.getConflicts().size());
+        assertEquals(NamespacedKey.fromString("test:b", null), descriptor.getConflicts().get(0));
+
+        assertEquals(2, reader.getProblems().size());
+        assertTrue(reader.getProblems().contains("\"\": invalid key"));
+        assertTrue(reader.getProblems().contains("\"test:a\": invalid conflict \"\""));
+
+    }
+
+}
@@ -0,0 +1,119 @@
+package de.drachir000.library.configuration;
+
+import com.google.gson.stream.JsonReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyNodeTest {
+
+    @Test
+    void subTreesAreBoundOnceOnFirstAccess() throws IOException {
+
+        AtomicInteger binds = new AtomicInteger();
+
+        try (JsonReader reader = new JsonReader(new StringReader("{\"large\": {\"values\": [1, 12345678901234567890, 2.5, \"x\", true, null]}, \"small\": 3}"))) {
+
+            reader.beginObject();
+            assertEquals("large", reader.nextName());
+
+            LazyNode<List<String>> large = LazyNode.read(reader, valueReader -> {
+                binds.incrementAndGet();
+                return readValues(valueReader);
+            });
+
+            // the reader continues right after the sub-tree
+            assertEquals("small", reader.nextName());
+            assertEquals(3, reader.nextInt());
+            reader.endObject();
+
+            assertFalse(large.isBound());
+            assertEquals(0, binds.get());
+
+            List<String> values = large.get();
+
+            assertTrue(large.isBound());
+            assertSame(values, large.get());
+            assertEquals(1, binds.get());
+
+            List<String> expected = new ArrayList<>();
+            expected.add("1");
+            expected.add("12345678901234567890");
+            expected.add("2.5");
+            expected.add("x");
+            expected.add("true");
+            expected.add("null");
+            assertEquals(expected, values);
+
+        }
+
+    }
+
+    @Test
+    void malformedSubTreesFailWhileReading() {
+        assertThrows(IOException.class, () -> {
+            try (JsonReader reader = new JsonReader(new StringReader("{\"a\": [1, 2"))) {
+                reader.beginObject();
+                reader.nextName();
+                LazyNode.read(reader, valueReader -> null);
+            }
+        });
+    }
+
+    @Test
+    void bindingFailuresAreThrownOnAccess() throws IOException {
+
+        LazyNode<String> node;
+
+        try (JsonReader reader = new JsonReader(new StringReader("[1]"))) {
+            node = LazyNode.read(reader, valueReader -> {
+                throw new IOException("unexpected array");
+            });
+        }
+
+        assertThrows(IllegalStateException.class, node::get);
+        assertFalse(node.isBound());
+
+    }
+
+    // the values of {"values": [...]} as their JSON text
+    private static List<String> readValues(JsonReader reader) throws IOException {
+
+        List<String> values = new ArrayList<>();
+
+        reader.beginObject();
+        reader.nextName();
+        reader.beginArray();
+
+        while (reader.hasNext()) {
+            switch (reader.peek()) {
+                case BOOLEAN:
+                    values.add(String.valueOf(reader.nextBoolean()));
+                    break;
+                case NULL:
+                    reader.nextNull();
+                    values.add("null");
+                    break;
+                default:
+                    values.add(reader.nextString());
+            }
+        }
+
+        reader.endArray();
+        reader.endObject();
+
+        return values;
+
+    }
+
+}
@@ -0,0 +1,65 @@
+package de.drachir000.library.utils;
+
+import de.drachir000.library.enchantments.Enchantment;
+import org.bukkit.NamespacedKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConflictMatrixTest {
+
+    @Test
+    void conflictsAreSymmetric() {
+
+        List<Enchantment> enchantments = Arrays.asList(
+                TestEnchantments.create("test:a", "test:b"),
+                TestEnchantments.create("test:b", "test:unregistered"),
+                TestEnchantments.create("test:c", "test:a"),
+                TestEnchantments.create("test:d")
+        );
+
+        ConflictMatrix matrix = compile(enchantments);
+
+        for (int id = 0; id < enchantments.size(); id++) {
+            for (int otherId = 0; otherId < enchantments.size(); otherId++)
+                assertEquals(matrix.conflicts(id, otherId), matrix.conflicts(otherId, id), id + " <-> " + otherId);
+        }
+
+        // declared by a only
+        assertTrue(matrix.conflicts(0, 1));
+        assertTrue(matrix.conflicts(1, 0));
+        // declared by c only
+        assertTrue(matrix.conflicts(2, 0));
+        assertTrue(matrix.conflicts(0, 2));
+
+        assertFalse(matrix.conflicts(1, 2));
+        assertFalse(matrix.conflicts(0, 0));
+        assertTrue(matrix.row(3).isEmpty());
+
+    }
+
+    @Test
+    void conflictsWithUnregisteredKeysAreLeftOut() {
+
+        ConflictMatrix matrix = compile(Arrays.asList(TestEnchantments.create("test:a", "test:unregistered"), TestEnchantments.create("test:b")));
+
+        assertTrue(matrix.row(0).isEmpty());
+        assertTrue(matrix.row(1).isEmpty());
+
+    }
+
+    private static ConflictMatrix compile(List<Enchantment> enchantments) {
+        Map<NamespacedKey, Integer> ids = new HashMap<>();
+        for (Enchantment enchantment : enchantments)
+            ids.put(enchantment.getNamespacedKey(), ids.size());
+        return ConflictMatrix.compile(enchantments, key -> ids.getOrDefault(key, -1), ids.size());
+    }
+
+}
@@ -0,0 +1,136 @@
+package de.drachir000.library.utils;
+
+import de.drachir000.library.configuration.JsonConfig;
+import de.drachir000.library.enchantments.Enchantment;
+import org.bukkit.NamespacedKey;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class EnchantmentIdsTest {
+
+    private static final Logger LOGGER = Logger.getLogger(EnchantmentIdsTest.class.getName());
+
+    @TempDir
+    Path dataFolder;
+
+    @Test
+    void idsSurviveARestart() {
+
+        EnchantmentIds ids = load();
+
+        int a = ids.assign(key("test:a"));
+        int b = ids.assign(key("test:b"));
+        int c = ids.assign(key("test:c"));
+        ids.flush();
+
+        EnchantmentIds reloaded = load();
+
+        assertEquals(a, reloaded.get(key("test:a")));
+        assertEquals(b, reloaded.get(key("test:b")));
+        assertEquals(c, reloaded.get(key("test:c")));
+        assertEquals(3, reloaded.size());
+        assertEquals(3, reloaded.assign(key("test:d")));
+
+    }
+
+    @Test
+    void idsAreDenseAndStable() {
+
+        EnchantmentIds ids = load();
+
+        assertEquals(0, ids.assign(key("test:a")));
+        assertEquals(1, ids.assign(key("test:b")));
+        assertEquals(0, ids.assign(key("test:a")));
+        assertEquals(-1, ids.get(key("test:c")));
+        assertEquals(2, ids.size());
+
+    }
+
+    @Test
+    void invalidEntriesAreSkipped() throws IOException {
+
+        Files.write(dataFolder.resolve("enchantment-ids.json"),
+                "{\"test:a\": 0, \"test:b\": 0, \"Not a key!\": 1, \"\": 2, \"test:c\": \"x\", \"test:d\": 5}".getBytes(StandardCharsets.UTF_8));
+
+        EnchantmentIds ids = load();
+
+        // the file isn't ordered, so either of both duplicates keeps the id
+        int a = ids.get(key("test:a")), b = ids.get(key("test:b"));
+        assertEquals(-1, Math.min(a, b));
+        assertEquals(0, Math.max(a, b));
+
+        assertEquals(-1, ids.get(key("test:c")));
+        assertEquals(5, ids.get(key("test:d")));
+        assertEquals(6, ids.size());
+        assertEquals(6, ids.assign(key("test:c")));
+
+    }
+
+    @Test
+    void moreThan64PersistedIdsCanBeLookedUpBeforeAnythingIsBound() throws IOException {
+
+        StringBuilder json = new StringBuilder("{");
+        for (int id = 0; id < 100; id++)
+            json.append(id == 0 ? "" : ", ").append("\"test:e").append(id).append("\": ").append(id);
+        Files.write(dataFolder.resolve("enchantment-ids.json"), json.append("}").toString().getBytes(StandardCharsets.UTF_8));
+
+        EnchantmentIds ids = load();
+
+        assertEquals(100, ids.size());
+        assertEquals(99, ids.get(key("test:e99")));
+        assertNull(ids.getEnchantment(99));
+        assertNull(ids.getEnchantment(ids.get(key("test:e99"))));
+        assertNull(ids.getEnchantment(100));
+        assertNull(ids.getEnchantment(-1));
+
+        Enchantment enchantment = TestEnchantments.create("test:e99");
+
+        assertEquals(99, ids.bind(enchantment));
+        assertSame(enchantment, ids.getEnchantment(99));
+
+        ids.unbind(key("test:e99"));
+        assertNull(ids.getEnchantment(99));
+
+    }
+
+    private EnchantmentIds load() {
+        EnchantmentIds ids = new EnchantmentIds(new JsonConfig(plugin(), "enchantment-ids.json"), LOGGER);
+        ids.load();
+        return ids;
+    }
+
+    // only the parts of a plugin, that a JsonConfig uses
+    private Plugin plugin() {
+        return (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(), new Class<?>[]{Plugin.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getDataFolder":
+                    return dataFolder.toFile();
+                case "getLogger":
+                    return LOGGER;
+                case "saveResource":
+                    // the bundled enchantment-ids.json is empty
+                    Files.write(dataFolder.resolve((String) args[0]), "{}".getBytes(StandardCharsets.UTF_8));
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static NamespacedKey key(String key) {
+        return NamespacedKey.fromString(key, null);
+    }
+
+}
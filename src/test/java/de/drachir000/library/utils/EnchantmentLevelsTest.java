@@ -0,0 +1,94 @@
+package de.drachir000.library.utils;
+
+import de.drachir000.library.enchantments.Enchantment;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnchantmentLevelsTest {
+
+    private final Enchantment a = TestEnchantments.create("test:a"), b = TestEnchantments.create("test:b"), c = TestEnchantments.create("test:c");
+    private final EnchantmentLevels levels = new EnchantmentLevels(new Enchantment[]{a, b}, new int[]{0, 1}, new short[]{1, 3}, 2);
+
+    @Test
+    void mapViewEqualsAnyMapWithTheSameEntries() {
+
+        Map<Enchantment, Short> expected = new LinkedHashMap<>();
+        expected.put(a, (short) 1);
+        expected.put(b, (short) 3);
+
+        Map<Enchantment, Short> map = levels.asMap();
+
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+        assertEquals(expected.toString(), map.toString());
+
+    }
+
+    @Test
+    void lookupsCompareEnchantmentsWithEquals() {
+
+        // another instance with the same key, e.g. after the enchantment was registered again
+        Enchantment otherA = TestEnchantments.create("test:a");
+
+        assertEquals(0, levels.indexOf(otherA));
+        assertTrue(levels.contains(otherA));
+        assertEquals(1, levels.level(otherA));
+        assertEquals(Short.valueOf((short) 1), levels.asMap().get(otherA));
+        assertTrue(levels.asMap().containsKey(otherA));
+
+        assertEquals(-1, levels.indexOf(c));
+        assertEquals(0, levels.level(c));
+        assertNull(levels.asMap().get(c));
+        assertFalse(levels.asMap().containsKey(c));
+        assertFalse(levels.asMap().containsKey("test:a"));
+        assertNull(levels.asMap().get(null));
+
+    }
+
+    @Test
+    void entriesKeepTheirOrder() {
+
+        List<Enchantment> keys = new ArrayList<>(levels.asMap().keySet());
+
+        assertEquals(2, keys.size());
+        assertEquals(a, keys.get(0));
+        assertEquals(b, keys.get(1));
+
+    }
+
+    @Test
+    void mapViewIsUnmodifiable() {
+
+        Map<Enchantment, Short> map = levels.asMap();
+
+        assertThrows(UnsupportedOperationException.class, () -> map.put(c, (short) 1));
+        assertThrows(UnsupportedOperationException.class, () -> map.remove(a));
+        assertThrows(UnsupportedOperationException.class, map::clear);
+
+        Iterator<Map.Entry<Enchantment, Short>> iterator = map.entrySet().iterator();
+        iterator.next();
+        assertThrows(UnsupportedOperationException.class, iterator::remove);
+        assertEquals(2, map.size());
+
+    }
+
+    @Test
+    void emptyLevelsAreAnEmptyMap() {
+        assertTrue(EnchantmentLevels.EMPTY.isEmpty());
+        assertEquals(new LinkedHashMap<Enchantment, Short>(), EnchantmentLevels.EMPTY.asMap());
+        assertEquals(-1, EnchantmentLevels.EMPTY.indexOf(a));
+    }
+
+}
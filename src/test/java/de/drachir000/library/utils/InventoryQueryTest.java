@@ -0,0 +1,23 @@
+package de.drachir000.library.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class InventoryQueryTest {
+
+    @Test
+    void nothingOfANullInventoryMatches() {
+
+        // like BulkItemEdit#applyTo, a null inventory is treated as an empty one
+        InventoryQuery query = new InventoryQuery(null, levels -> true);
+
+        assertEquals(0, query.count(null));
+        assertEquals(-1, query.first(null));
+        assertFalse(query.any(null));
+        assertEquals(0, query.all(null).length);
+
+    }
+
+}
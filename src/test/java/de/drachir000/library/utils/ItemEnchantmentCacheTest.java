@@ -0,0 +1,99 @@
+package de.drachir000.library.utils;
+
+import de.drachir000.library.enchantments.Enchantment;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemEnchantmentCacheTest {
+
+    private static final Enchantment A = TestEnchantments.create("test:a");
+
+    private final AtomicInteger registryVersion = new AtomicInteger();
+    private final AtomicInteger parses = new AtomicInteger();
+
+    @Test
+    void repeatedReadsOfTheSameItemAreCached() {
+
+        ItemEnchantmentCache cache = new ItemEnchantmentCache(registryVersion::get, 16);
+        ItemStack item = new ItemStack(Material.DIAMOND_SWORD);
+
+        EnchantmentLevels levels = cache.get(item, this::parse);
+
+        assertSame(levels, cache.get(item, this::parse));
+        assertEquals(1, parses.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate());
+
+    }
+
+    @Test
+    void itemsAreComparedByIdentity() {
+
+        ItemEnchantmentCache cache = new ItemEnchantmentCache(registryVersion::get, 16);
+
+        cache.get(new ItemStack(Material.DIAMOND_SWORD), this::parse);
+        cache.get(new ItemStack(Material.DIAMOND_SWORD), this::parse);
+
+        assertEquals(2, parses.get());
+        assertEquals(0, cache.getHitCount());
+
+    }
+
+    @Test
+    void invalidatedItemsAreParsedAgain() {
+
+        ItemEnchantmentCache cache = new ItemEnchantmentCache(registryVersion::get, 16);
+        ItemStack item = new ItemStack(Material.DIAMOND_SWORD);
+
+        cache.get(item, this::parse);
+        cache.invalidate(item);
+        cache.get(item, this::parse);
+
+        assertEquals(2, parses.get());
+        assertEquals(0, cache.getHitCount());
+
+    }
+
+    @Test
+    void aChangeOfTheRegistryInvalidatesEveryItem() {
+
+        ItemEnchantmentCache cache = new ItemEnchantmentCache(registryVersion::get, 16);
+        ItemStack item = new ItemStack(Material.DIAMOND_SWORD);
+
+        cache.get(item, this::parse);
+        registryVersion.incrementAndGet();
+        cache.get(item, this::parse);
+
+        assertEquals(2, parses.get());
+
+    }
+
+    @Test
+    void theCacheIsBounded() {
+
+        ItemEnchantmentCache cache = new ItemEnchantmentCache(registryVersion::get, 2);
+
+        ItemStack[] items = new ItemStack[8];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new ItemStack(Material.DIAMOND_SWORD);
+            cache.get(items[i], this::parse);
+        }
+
+        assertTrue(cache.size() <= 2);
+
+    }
+
+    private EnchantmentLevels parse(ItemStack item) {
+        parses.incrementAndGet();
+        return new EnchantmentLevels(new Enchantment[]{A}, new int[]{0}, new short[]{2}, 1);
+    }
+
+}
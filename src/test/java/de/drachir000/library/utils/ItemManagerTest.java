@@ -0,0 +1,89 @@
+package de.drachir000.library.utils;
+
+import de.drachir000.library.enchantments.Enchantment;
+import de.tr7zw.changeme.nbtapi.iface.ReadWriteNBT;
+import org.bukkit.NamespacedKey;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemManagerTest {
+
+    private static final NamespacedKey KEY = NamespacedKey.fromString("test:a", null);
+
+    @Test
+    void theLastOfDuplicateEntriesWins() {
+
+        // the same rule getEnchantmentLevels uses, so probing and reading all levels can't disagree
+        List<ReadWriteNBT> enchantments = Arrays.asList(entry("test:a", 1), entry("test:b", 4), entry("test:a", 3));
+
+        assertEquals(3, ItemManager.probeLevel(enchantments, KEY));
+
+    }
+
+    @Test
+    void entriesWithoutALevelDontOverrideEarlierOnes() {
+
+        List<ReadWriteNBT> enchantments = Arrays.asList(entry("test:a", 2), entry("test:a", 0), entry("test:a", null));
+
+        assertEquals(2, ItemManager.probeLevel(enchantments, KEY));
+
+    }
+
+    @Test
+    void unNamespacedIdsBelongToMinecraft() {
+
+        List<ReadWriteNBT> enchantments = Arrays.asList(entry("sharpness", 2), entry("minecraft:sharpness", 5));
+
+        assertEquals(5, ItemManager.probeLevel(enchantments, NamespacedKey.minecraft("sharpness")));
+        assertEquals(0, ItemManager.probeLevel(enchantments, KEY));
+
+    }
+
+    @Test
+    void everyAddedEnchantmentUnknownToTheServerIsReported() {
+
+        Enchantment a = TestEnchantments.create("test:a"), b = TestEnchantments.create("test:b");
+
+        Map<Enchantment, Short> changes = new LinkedHashMap<>();
+        changes.put(a, (short) 2);
+        changes.put(b, (short) 1);
+
+        // every change would be dropped, so the commit is rejected instead of reporting success without changing anything
+        assertEquals(Arrays.asList(a.getNamespacedKey(), b.getNamespacedKey()), ItemManager.unknownToServer(changes, namespacedKey -> false));
+        assertTrue(ItemManager.unknownToServer(changes, namespacedKey -> true).isEmpty());
+
+    }
+
+    @Test
+    void enchantmentsUnknownToTheServerCanBeRemoved() {
+
+        Map<Enchantment, Short> changes = new LinkedHashMap<>();
+        changes.put(TestEnchantments.create("test:a"), (short) 0);
+
+        assertTrue(ItemManager.unknownToServer(changes, namespacedKey -> false).isEmpty());
+
+    }
+
+    // an enchantment list entry of an item's NBT with just an id and a level
+    private static ReadWriteNBT entry(String id, Integer lvl) {
+        return (ReadWriteNBT) Proxy.newProxyInstance(ReadWriteNBT.class.getClassLoader(), new Class<?>[]{ReadWriteNBT.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getString":
+                    return "id".equals(args[0]) ? id : null;
+                case "getInteger":
+                    return "lvl".equals(args[0]) ? lvl : null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+}
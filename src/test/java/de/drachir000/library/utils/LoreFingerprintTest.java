@@ -0,0 +1,80 @@
+package de.drachir000.library.utils;
+
+import de.drachir000.library.enchantments.Enchantment;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class LoreFingerprintTest {
+
+    // the fingerprint of test:a at level 2 with a lore size of 3, changing it updates the lore of every enchanted item once
+    private static final long FINGERPRINT = -8727906970798645365L;
+
+    @Test
+    void equalEnchantmentsHaveEqualFingerprints() {
+
+        // e.g. the same enchantment after a server restart or after it was registered again
+        long fingerprint = LoreFingerprint.of(levels(TestEnchantments.create("test:a"), 2), 3);
+
+        assertEquals(fingerprint, LoreFingerprint.of(levels(TestEnchantments.create("test:a"), 2), 3));
+
+    }
+
+    @Test
+    void fingerprintsDontDependOnTheServer() {
+
+        // fingerprints are stored on items, so they must not depend on the enchantment ids or on anything that changes with a restart
+        assertEquals(LoreFingerprint.of(levels(TestEnchantments.create("test:a"), 2, 0), 3), LoreFingerprint.of(levels(TestEnchantments.create("test:a"), 2, 5), 3));
+        assertEquals(FINGERPRINT, LoreFingerprint.of(levels(TestEnchantments.create("test:a"), 2, 0), 3));
+
+    }
+
+    @Test
+    void everyRenderedPropertyChangesTheFingerprint() {
+
+        long fingerprint = LoreFingerprint.of(levels(TestEnchantments.create("test:a"), 2), 3);
+
+        assertNotEquals(fingerprint, LoreFingerprint.of(levels(TestEnchantments.create("test:b"), 2), 3));
+        assertNotEquals(fingerprint, LoreFingerprint.of(levels(TestEnchantments.create("test:a"), 3), 3));
+        assertNotEquals(fingerprint, LoreFingerprint.of(levels(TestEnchantments.create("test:a"), 2), 4));
+
+        Enchantment renamed = TestEnchantments.create("test:a");
+        renamed.setName("Renamed");
+        assertNotEquals(fingerprint, LoreFingerprint.of(levels(renamed, 2), 3));
+
+        Enchantment defaultPrefix = TestEnchantments.create("test:a");
+        defaultPrefix.setDefaultPrefix("§r§c");
+        assertNotEquals(fingerprint, LoreFingerprint.of(levels(defaultPrefix, 2), 3));
+
+        Enchantment maxLevelPrefix = TestEnchantments.create("test:a");
+        maxLevelPrefix.setMaxLevelPrefix("§r§c");
+        assertNotEquals(fingerprint, LoreFingerprint.of(levels(maxLevelPrefix, 2), 3));
+
+        Enchantment maxLevel = TestEnchantments.create("test:a");
+        maxLevel.setMaxLevel((short) 2);
+        assertNotEquals(fingerprint, LoreFingerprint.of(levels(maxLevel, 2), 3));
+
+    }
+
+    @Test
+    void theOrderOfTheEnchantmentsChangesTheFingerprint() {
+
+        Enchantment a = TestEnchantments.create("test:a"), b = TestEnchantments.create("test:b");
+
+        EnchantmentLevels ab = new EnchantmentLevels(new Enchantment[]{a, b}, new int[]{0, 1}, new short[]{1, 1}, 2);
+        EnchantmentLevels ba = new EnchantmentLevels(new Enchantment[]{b, a}, new int[]{1, 0}, new short[]{1, 1}, 2);
+
+        assertNotEquals(LoreFingerprint.of(ab, 3), LoreFingerprint.of(ba, 3));
+
+    }
+
+    private static EnchantmentLevels levels(Enchantment enchantment, int level) {
+        return levels(enchantment, level, 0);
+    }
+
+    private static EnchantmentLevels levels(Enchantment enchantment, int level, int id) {
+        return new EnchantmentLevels(new Enchantment[]{enchantment}, new int[]{id}, new short[]{(short) level}, 1);
+    }
+
+}
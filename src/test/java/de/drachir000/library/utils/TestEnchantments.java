@@ -0,0 +1,25 @@
+package de.drachir000.library.utils;
+
+import de.drachir000.library.enchantments.Enchantment;
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.EnchantmentTarget;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// creates enchantments for tests, that don't need a server or a registered ELib
+final class TestEnchantments {
+
+    private TestEnchantments() {
+    }
+
+    // named "Test" with the default prefixes and the levels 1 to 5
+    static Enchantment create(String key, String... conflicts) {
+        List<NamespacedKey> conflictKeys = new ArrayList<>();
+        for (String conflict : conflicts)
+            conflictKeys.add(NamespacedKey.fromString(conflict, null));
+        return new Enchantment("Test", "§r§7", "§r§6", NamespacedKey.fromString(key, null), (short) 1, (short) 5, EnchantmentTarget.ALL, false, conflictKeys, null) {
+        };
+    }
+
+}